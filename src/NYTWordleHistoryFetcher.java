@@ -3,6 +3,7 @@ import java.net.http.*;
 import java.time.LocalDate;
 import java.util.*;
 import com.fasterxml.jackson.databind.*;
+import com.benny.wordle.LetterStatisticsStore;
 import java.nio.file.*;
 import java.util.stream.*;
 
@@ -44,5 +45,9 @@ public class NYTWordleHistoryFetcher {
 
         // 2) JSON option: (im personally unfamiliar with JSON manipulation but could be useful for future)
         M.writerWithDefaultPrettyPrinter().writeValue(Path.of("wordle_history.json").toFile(), history);
+
+        // 3) keep the letter statistics snapshot in step, only the days the csv didn't have last time get counted
+        LetterStatisticsStore stats = LetterStatisticsStore.load(LetterStatisticsStore.DEFAULT_SNAPSHOT, LetterStatisticsStore.DEFAULT_HISTORY);
+        stats.save(LetterStatisticsStore.DEFAULT_SNAPSHOT);
     }
 }
\ No newline at end of file
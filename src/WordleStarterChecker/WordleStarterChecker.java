@@ -1,9 +1,11 @@
 package WordleStarterChecker;
 
+import com.benny.wordle.WordleHistoryStore;
+
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.HashSet;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
 
 public class WordleStarterChecker {
@@ -11,15 +13,11 @@ public class WordleStarterChecker {
         /**
          * as discussed challenges.txt this is old code I wrote 2 yrs ago
          */
-        HashSet<String> usedWords = new HashSet();
-
+        //used words now come from the merged history file (CleanWordList.txt, PastWordles.txt and the NYT csv/json together)
+        WordleHistoryStore usedWords;
         try {
-            Scanner fileScanner = new Scanner(new FileReader("src/WordleStarterChecker/CleanWordList.txt"));
-
-            while(fileScanner.hasNext()) {
-                usedWords.add(fileScanner.nextLine().toUpperCase());
-            }
-        } catch (IOException e) {
+            usedWords = WordleHistoryStore.load();
+        } catch (UncheckedIOException e) {
             System.err.println("Error occurred while reading the file: " + e.getMessage());
             return;
         }
@@ -0,0 +1,178 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+import com.benny.wordle.RegExWordle.LetterResponse;
+import com.benny.wordle.RegExWordle.WordleResponse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a Guess for anything that has to leave the JVM (sockets, files)
+ * a guess is 5 letters at 5 bits each (a=1 .. z=26) plus 5 responses at 2 bits each, 35 bits total,
+ * which goes on the wire as 5 bytes instead of a string plus 5 objects
+ *
+ * bit layout of the packed long, position 0 in the lowest bits:
+ *   bits  0-24  letter of position i in bits 5i .. 5i+4
+ *   bits 25-34  response of position i in bits 25+2i .. 26+2i (0 gray, 1 yellow, 2 green)
+ *
+ * only "real" guesses can be packed: 5 letters a-z and exactly one response per position whose letter matches the word,
+ * which is what every game produces, anything else throws an IllegalArgumentException instead of silently losing data.
+ * writeAnyHistory() is for callers that must carry whatever RegExWordle accepts (partial or hand built feedback),
+ * it packs when it can and spells the guesses out otherwise
+ */
+public final class GuessCodec {
+
+    public static final int WORD_LENGTH = 5;
+    /** bytes one packed guess takes on the wire */
+    public static final int GUESS_BYTES = 5;
+
+    private static final byte PACKED = 0;
+    private static final byte SPELLED_OUT = 1;
+
+    private static final int LETTER_BITS = 5;
+    private static final int FEEDBACK_SHIFT = WORD_LENGTH * LETTER_BITS;
+
+    private GuessCodec() {
+        throw new AssertionError("GuessCodec is static-only; do not instantiate");
+    }
+
+    public static long pack(Guess guess) {
+        String word = guess.wordGuessed.toLowerCase();
+        if (word.length() != WORD_LENGTH) {
+            throw new IllegalArgumentException("only 5 letter guesses can be packed: " + guess.wordGuessed);
+        }
+        if (guess.feedback.size() != WORD_LENGTH) {
+            throw new IllegalArgumentException("expected 5 responses for " + word + " but got " + guess.feedback.size());
+        }
+        long packed = 0;
+        boolean[] seen = new boolean[WORD_LENGTH];
+        for (WordleResponse r : guess.feedback) {
+            int i = r.index;
+            if (i < 0 || i >= WORD_LENGTH || seen[i]) {
+                throw new IllegalArgumentException("bad or repeated response index " + i + " for " + word);
+            }
+            if (Character.toLowerCase(r.letter) != word.charAt(i)) {
+                throw new IllegalArgumentException("response letter " + r.letter + " doesn't match " + word + " at " + i);
+            }
+            seen[i] = true;
+            packed |= (long) responseCode(r.response) << (FEEDBACK_SHIFT + 2 * i);
+        }
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') throw new IllegalArgumentException("only letters a-z can be packed: " + word);
+            packed |= (long) (c - 'a' + 1) << (LETTER_BITS * i);
+        }
+        return packed;
+    }
+
+    public static Guess unpack(long packed) {
+        char[] word = new char[WORD_LENGTH];
+        List<WordleResponse> feedback = new ArrayList<>(WORD_LENGTH);
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            int letter = (int) (packed >>> (LETTER_BITS * i)) & 0x1F;
+            if (letter < 1 || letter > 26) throw new IllegalArgumentException("corrupt packed guess " + Long.toHexString(packed));
+            word[i] = (char) ('a' + letter - 1);
+            feedback.add(new WordleResponse(word[i], i, response((int) (packed >>> (FEEDBACK_SHIFT + 2 * i)) & 0x3)));
+        }
+        return new Guess(new String(word), feedback);
+    }
+
+    public static void writeGuess(DataOutput out, Guess guess) throws IOException {
+        long packed = pack(guess);
+        out.writeByte((int) (packed >>> 32));
+        out.writeInt((int) packed);
+    }
+
+    public static Guess readGuess(DataInput in) throws IOException {
+        long high = in.readUnsignedByte();
+        long low = in.readInt() & 0xFFFFFFFFL;
+        return unpack(high << 32 | low);
+    }
+
+    /** a whole game history: an unsigned short count followed by that many packed guesses */
+    public static void writeHistory(DataOutput out, List<Guess> history) throws IOException {
+        if (history.size() > 0xFFFF) throw new IllegalArgumentException("history too long to encode: " + history.size());
+        out.writeShort(history.size());
+        for (Guess g : history) writeGuess(out, g);
+    }
+
+    public static List<Guess> readHistory(DataInput in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<Guess> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) history.add(readGuess(in));
+        return history;
+    }
+
+    /**
+     * any history at all: a format byte, then writeHistory() when every guess packs, otherwise an unsigned short count and per guess
+     * the word (writeUTF), an unsigned short response count and each response as letter (char), index (int), response code (byte),
+     * in the order the guess lists them
+     */
+    public static void writeAnyHistory(DataOutput out, List<Guess> history) throws IOException {
+        if (history.size() > 0xFFFF) throw new IllegalArgumentException("history too long to encode: " + history.size());
+        boolean packable = true;
+        try {
+            for (Guess g : history) pack(g); //pack() is the one place that knows what fits in 35 bits
+        } catch (IllegalArgumentException notARealGuess) {
+            packable = false;
+        }
+        if (packable) {
+            out.writeByte(PACKED);
+            writeHistory(out, history);
+            return;
+        }
+        out.writeByte(SPELLED_OUT);
+        out.writeShort(history.size());
+        for (Guess g : history) {
+            if (g.feedback.size() > 0xFFFF) throw new IllegalArgumentException("too many responses to encode: " + g.feedback.size());
+            out.writeUTF(g.wordGuessed);
+            out.writeShort(g.feedback.size());
+            for (WordleResponse r : g.feedback) {
+                out.writeChar(r.letter);
+                out.writeInt(r.index);
+                out.writeByte(responseCode(r.response));
+            }
+        }
+    }
+
+    public static List<Guess> readAnyHistory(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format == PACKED) return readHistory(in);
+        if (format != SPELLED_OUT) throw new IOException("unknown history format " + format);
+        int size = in.readUnsignedShort();
+        List<Guess> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String word = in.readUTF();
+            int responses = in.readUnsignedShort();
+            List<WordleResponse> feedback = new ArrayList<>(responses);
+            for (int j = 0; j < responses; j++) {
+                char letter = in.readChar();
+                int index = in.readInt();
+                feedback.add(new WordleResponse(letter, index, response(in.readUnsignedByte())));
+            }
+            history.add(new Guess(word, feedback));
+        }
+        return history;
+    }
+
+    private static int responseCode(LetterResponse response) {
+        return switch (response) {
+            case WRONG_LETTER -> 0;
+            case WRONG_LOCATION -> 1;
+            case CORRECT_LOCATION -> 2;
+        };
+    }
+
+    private static LetterResponse response(int code) {
+        return switch (code) {
+            case 0 -> LetterResponse.WRONG_LETTER;
+            case 1 -> LetterResponse.WRONG_LOCATION;
+            case 2 -> LetterResponse.CORRECT_LOCATION;
+            default -> throw new IllegalArgumentException("corrupt response code " + code);
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.benny.wordle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Letter counts over a set of 5 letter words, all kept in flat int arrays so a lookup is one array read
+ *   positionCounts[position * 26 + letter]  how many words have that letter at that position
+ *   bigramCounts[first * 26 + second]       how many times second directly follows first (4 pairs per word)
+ *   wordsContaining[letter]                 how many words have that letter anywhere (counted once per word)
+ *   wordsWithRepeats                        how many words use some letter more than once
+ * letters are a=0 .. z=25 and positions are 0 based, the same as WordleResponse.index
+ *
+ * words can be added one at a time (new days from the fetcher) and two instances can be merged,
+ * which is how of() builds the counts in parallel. all methods are synchronized so a reader never sees half an update
+ */
+public final class LetterStatistics {
+
+    public static final int WORD_LENGTH = 5;
+    public static final int ALPHABET = 26;
+
+    private final int[] positionCounts = new int[WORD_LENGTH * ALPHABET];
+    private final int[] bigramCounts = new int[ALPHABET * ALPHABET];
+    private final int[] wordsContaining = new int[ALPHABET];
+    private int wordsWithRepeats;
+    private int wordCount;
+
+    public LetterStatistics() {
+    }
+
+    /** counts every word, in parallel since each thread can fill its own arrays and merge them at the end */
+    public static LetterStatistics of(Collection<String> words) {
+        return words.parallelStream().collect(LetterStatistics::new, LetterStatistics::add, LetterStatistics::merge);
+    }
+
+    /**
+     * counts the words still possible after history, filtered and counted in the same walk over the dictionary
+     * so there's no candidate list in between, the rules are compiled here on the calling thread (candidateFilter() uses static state)
+     */
+    public static LetterStatistics ofCandidates(List<RegExWordle.Guess> history) {
+        Predicate<String> isCandidate = RegExWordle.candidateFilter(history);
+        return RegExWordle.dictionary().parallelStream().filter(isCandidate)
+                .collect(LetterStatistics::new, LetterStatistics::add, LetterStatistics::merge);
+    }
+
+    public synchronized void add(String word) {
+        if (word.length() != WORD_LENGTH) throw new IllegalArgumentException("not a 5 letter word: " + word);
+        int seen = 0; //bit per letter
+        boolean repeats = false;
+        int previous = -1;
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            int letter = letterIndex(word.charAt(i));
+            positionCounts[i * ALPHABET + letter]++;
+            if (previous >= 0) bigramCounts[previous * ALPHABET + letter]++;
+            if ((seen & 1 << letter) != 0) repeats = true;
+            seen |= 1 << letter;
+            previous = letter;
+        }
+        for (int letter = 0; letter < ALPHABET; letter++) {
+            if ((seen & 1 << letter) != 0) wordsContaining[letter]++;
+        }
+        if (repeats) wordsWithRepeats++;
+        wordCount++;
+    }
+
+    public synchronized void merge(LetterStatistics other) {
+        synchronized (other) {
+            addAll(positionCounts, other.positionCounts);
+            addAll(bigramCounts, other.bigramCounts);
+            addAll(wordsContaining, other.wordsContaining);
+            wordsWithRepeats += other.wordsWithRepeats;
+            wordCount += other.wordCount;
+        }
+    }
+
+    public synchronized int wordCount() {
+        return wordCount;
+    }
+
+    public synchronized int positionCount(char letter, int position) {
+        if (position < 0 || position >= WORD_LENGTH) throw new IllegalArgumentException("position must be 0-4 but was " + position);
+        return positionCounts[position * ALPHABET + letterIndex(letter)];
+    }
+
+    /** share of the words with this letter at this position, 0 for an empty set */
+    public synchronized double positionFrequency(char letter, int position) {
+        return wordCount == 0 ? 0 : (double) positionCount(letter, position) / wordCount;
+    }
+
+    public synchronized int bigramCount(char first, char second) {
+        return bigramCounts[letterIndex(first) * ALPHABET + letterIndex(second)];
+    }
+
+    public synchronized int wordsContaining(char letter) {
+        return wordsContaining[letterIndex(letter)];
+    }
+
+    /** share of the words that use at least one letter twice (like "sissy" or "eagle") */
+    public synchronized double repeatLetterRate() {
+        return wordCount == 0 ? 0 : (double) wordsWithRepeats / wordCount;
+    }
+
+    synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeInt(wordCount);
+        out.writeInt(wordsWithRepeats);
+        for (int count : positionCounts) out.writeInt(count);
+        for (int count : bigramCounts) out.writeInt(count);
+        for (int count : wordsContaining) out.writeInt(count);
+    }
+
+    static LetterStatistics readFrom(DataInput in) throws IOException {
+        LetterStatistics stats = new LetterStatistics();
+        stats.wordCount = in.readInt();
+        stats.wordsWithRepeats = in.readInt();
+        for (int i = 0; i < stats.positionCounts.length; i++) stats.positionCounts[i] = in.readInt();
+        for (int i = 0; i < stats.bigramCounts.length; i++) stats.bigramCounts[i] = in.readInt();
+        for (int i = 0; i < stats.wordsContaining.length; i++) stats.wordsContaining[i] = in.readInt();
+        return stats;
+    }
+
+    private static int letterIndex(char c) {
+        int letter = Character.toLowerCase(c) - 'a';
+        if (letter < 0 || letter >= ALPHABET) throw new IllegalArgumentException("not a letter a-z: " + c);
+        return letter;
+    }
+
+    private static void addAll(int[] into, int[] from) {
+        for (int i = 0; i < into.length; i++) into[i] += from[i];
+    }
+}
@@ -0,0 +1,156 @@
+package com.benny.wordle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LetterStatistics for the past answers (wordle_history.csv) and for the whole 14,855 word dictionary,
+ * persisted to a small binary snapshot so a restart doesn't have to re-read either file
+ *
+ * the history side is incremental: the snapshot remembers how many bytes of the csv it already counted plus the last line it counted,
+ * catchUp() only reads what the fetcher added after that. the fetcher rewrites the csv from scratch every run but the days are in order
+ * so the old part is byte for byte the same, if the remembered last line isn't where it should be anymore the history is recounted
+ *
+ * stats over the remaining candidates of a game come from LetterStatistics.ofCandidates(history), counted during the filter pass itself
+ */
+public final class LetterStatisticsStore {
+
+    public static final Path DEFAULT_SNAPSHOT = Paths.get("letter_statistics.bin");
+    public static final Path DEFAULT_HISTORY = Paths.get("wordle_history.csv");
+
+    private static final int MAGIC = 0x4C535432; //"LST2", LST1 snapshots had no dictionary fingerprint and just get rebuilt
+    private static final Path DICTIONARY = Paths.get(RegExWordle.DICTIONARY_PATH);
+
+    private LetterStatistics answers;
+    private final LetterStatistics dictionary;
+    private long historyBytesRead;
+    private byte[] lastLine = new byte[0]; //including its '\n'
+
+    private LetterStatisticsStore(LetterStatistics answers, LetterStatistics dictionary) {
+        this.answers = answers;
+        this.dictionary = dictionary;
+    }
+
+    /** from the snapshot if there is a usable one (then caught up with the csv), otherwise built from scratch */
+    public static LetterStatisticsStore load(Path snapshot, Path historyCsv) throws IOException {
+        LetterStatisticsStore store = readSnapshot(snapshot);
+        if (store == null) return build(historyCsv);
+        store.catchUp(historyCsv);
+        return store;
+    }
+
+    public static LetterStatisticsStore build(Path historyCsv) throws IOException {
+        LetterStatisticsStore store = new LetterStatisticsStore(new LetterStatistics(), LetterStatistics.of(RegExWordle.dictionary()));
+        store.catchUp(historyCsv);
+        return store;
+    }
+
+    public synchronized LetterStatistics answers() {
+        return answers;
+    }
+
+    public LetterStatistics dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * counts the days added to the csv since the last call (or since the snapshot was taken)
+     * @return how many new days were counted
+     */
+    public synchronized int catchUp(Path historyCsv) throws IOException {
+        try (FileChannel csv = FileChannel.open(historyCsv, StandardOpenOption.READ)) {
+            if (!stillHasPrefix(csv)) {
+                answers = new LetterStatistics();
+                historyBytesRead = 0;
+                lastLine = new byte[0];
+            }
+            byte[] tail = read(csv, historyBytesRead, csv.size() - historyBytesRead);
+            int end = lastNewline(tail);
+            if (end < 0) return 0; //nothing new, or only half a line so far
+
+            List<String> words = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i <= end; i++) {
+                if (tail[i] != '\n') continue;
+                String line = new String(tail, lineStart, i - lineStart, StandardCharsets.US_ASCII).trim();
+                if (!line.isEmpty()) words.add(line.split(",", 2)[1].toLowerCase()); //same parsing as RegExWordle
+                lastLine = Arrays.copyOfRange(tail, lineStart, i + 1);
+                lineStart = i + 1;
+            }
+            answers.merge(LetterStatistics.of(words));
+            historyBytesRead += end + 1;
+            return words.size();
+        }
+    }
+
+    /** written to a temp file first and moved into place so a crash never leaves half a snapshot */
+    public synchronized void save(Path snapshot) throws IOException {
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            long[] fingerprint = dictionaryFingerprint();
+            out.writeLong(fingerprint[0]);
+            out.writeLong(fingerprint[1]);
+            out.writeLong(historyBytesRead);
+            out.writeShort(lastLine.length);
+            out.write(lastLine);
+            answers.writeTo(out);
+            dictionary.writeTo(out);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** null when there is no snapshot, it's from another format, or the dictionary changed since it was taken */
+    private static LetterStatisticsStore readSnapshot(Path snapshot) throws IOException {
+        if (!Files.exists(snapshot)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC) return null;
+            long[] fingerprint = dictionaryFingerprint();
+            if (in.readLong() != fingerprint[0] || in.readLong() != fingerprint[1]) return null; //dictionary file was edited
+            long historyBytesRead = in.readLong();
+            byte[] lastLine = new byte[in.readUnsignedShort()];
+            in.readFully(lastLine);
+            LetterStatistics answers = LetterStatistics.readFrom(in);
+            LetterStatistics dictionary = LetterStatistics.readFrom(in);
+            if (dictionary.wordCount() != RegExWordle.dictionary().size()) return null;
+
+            LetterStatisticsStore store = new LetterStatisticsStore(answers, dictionary);
+            store.historyBytesRead = historyBytesRead;
+            store.lastLine = lastLine;
+            return store;
+        } catch (EOFException truncated) {
+            return null;
+        }
+    }
+
+    /** size and last modified time of the dictionary file, same check WordleHistoryStore does for its sources */
+    private static long[] dictionaryFingerprint() throws IOException {
+        return new long[]{Files.size(DICTIONARY), Files.getLastModifiedTime(DICTIONARY).toMillis()};
+    }
+
+    private boolean stillHasPrefix(FileChannel csv) throws IOException {
+        if (historyBytesRead == 0) return true;
+        if (csv.size() < historyBytesRead) return false;
+        byte[] there = read(csv, historyBytesRead - lastLine.length, lastLine.length);
+        return Arrays.equals(there, lastLine);
+    }
+
+    private static byte[] read(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException("file shrank while reading");
+        }
+        return buffer.array();
+    }
+
+    private static int lastNewline(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) if (bytes[i] == '\n') return i;
+        return -1;
+    }
+}
@@ -6,6 +6,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -29,6 +30,11 @@ public class RegExWordle {
                 if(GrayCharacterClass.grayLetters.contains(letter)) GrayCharacterClass.remove(letter);
                 return "(?=.{" + position + "}" + letter + ")"; //positive lookahead to for this letter in this exact position for all future guesses
             }
+
+            @Override   //hard mode makes every later guess keep this green in place too
+            public String hardModeSegment(int position, char letter) {
+                return "(?=.{" + position + "}" + letter + ")";
+            }
         },
         WRONG_LOCATION {
             @Override   //Yellow
@@ -50,6 +56,15 @@ public class RegExWordle {
        //abstract class for all enums to incorporate
         public abstract String regexSegment(int position, char letter);
 
+        /**
+         * what hard mode demands of every later GUESS (not of the answer) for this response, only greens pin a position
+         * yellows just have to be reused somewhere, but how many times depends on the whole guess so getHardModeRegexRule() counts those itself
+         * and grays are still allowed in hard mode so they add nothing
+         */
+        public String hardModeSegment(int position, char letter) {
+            return "";
+        }
+
         /**
          * helper to collect all gray letters and build one character class (?!.*[...]) block
          */
@@ -129,10 +144,10 @@ public class RegExWordle {
 
     //List of 14,855 possible words eligible for a legal guess (consider lazy initialization in try catch block later when finalizing after we have working product)
     //would't it make sense for these to all be sets since it's supposed to be individual words? or is it more efficient to use a list and we can assume my source will not include doubles anyways?
-    private static final List<String> dictionaryOfAllLegalGuesses = loadWordList("src/all_possible_wordles.txt", String::toLowerCase);
-
-    //could be useful for randomly choosing legal words as a secret target to guess
-    private static final List<String> everyPreviousWinningWordle = loadWordList("wordle_history.csv", line -> line.split(",", 2)[1].toLowerCase()); //TODO i should consider how this would be done with streams theoretically as study material
+    static final String DICTIONARY_PATH = "src/all_possible_wordles.txt";
+    private static final List<String> dictionaryOfAllLegalGuesses = loadWordList(DICTIONARY_PATH, String::toLowerCase);
+    //same words as a set so checking a single guess doesn't walk the whole list
+    private static final Set<String> legalGuessSet = new HashSet<>(dictionaryOfAllLegalGuesses);
 
     /**
      * The CSV of past Wordles scraped from NYT contains each word's date
@@ -163,39 +178,101 @@ public class RegExWordle {
      * @return List of all words not ruled out by guess history filtering AKA returns collection of all currently valid guesses
      */
     public static List<String> wordleMatches(List<Guess> history) {
-        // 1) remember which words we've already tried
-        Set<String> wordsTried = new HashSet<>();
-        for (Guess g : history) {
-            wordsTried.add(g.wordGuessed.toLowerCase());
-        }
-
-        //2) i made a helper method to deal with regex building plus it makes them accessible for testing and therefore SRP compliant
-        Pattern newRegexRule = getUpdatedRegexRule(history);
+        // 1) + 2) remember which words we've already tried and build the regex, both live inside candidateFilter()
+        Predicate<String> isCandidate = candidateFilter(history);
 
         // 3) filter the dictionary
         List<String> filteredDictionary = new ArrayList<>();
         for (String candidate : dictionaryOfAllLegalGuesses) {
-            if (wordsTried.contains(candidate.toLowerCase())) continue;
-            if (newRegexRule.matcher(candidate).matches()) {
+            if (isCandidate.test(candidate)) {
                 filteredDictionary.add(candidate);
             }
         }
         return filteredDictionary;
     }
 
+    /**
+     * the per word test wordleMatches() runs against the dictionary, pulled out so the other scanners in this package
+     * (like WordleMatchPublisher) filter with the exact same rule instead of re-deriving it
+     * the regex is compiled here on the calling thread since getUpdatedRegexRule() leans on the static GrayCharacterClass,
+     * the returned predicate itself holds no shared state so it is safe to call from many threads at once
+     */
+    static Predicate<String> candidateFilter(List<Guess> history) {
+        return compileRules(history)::isCandidate;
+    }
+
+    /** read only view of the 14,855 word dictionary in file order, for the other scanners and anything counting over it */
+    public static List<String> dictionary() {
+        return Collections.unmodifiableList(dictionaryOfAllLegalGuesses);
+    }
+
+    static boolean isInDictionary(String word) {
+        return legalGuessSet.contains(word.toLowerCase());
+    }
+
     /** build the big regex by replaying every response */
     public static Pattern getUpdatedRegexRule(List<Guess> history){
+        return compileRules(history).candidateRule;
+    }
+
+    /** the looser rule hard mode holds every new guess to: all greens in place and every revealed letter reused */
+    public static Pattern getHardModeRegexRule(List<Guess> history){
+        return compileRules(history).hardModeRule;
+    }
+
+    /**
+     * everything one replay of the history compiles to
+     * the candidate rule (what the answer can still be) and the hard mode rule (what we're still allowed to guess) come out of the same loop,
+     * so a hard mode solver filters candidates and legal guesses in one walk over the dictionary
+     */
+    static final class CompiledRules {
+        final Pattern candidateRule;
+        final Pattern hardModeRule;
+        final Set<String> wordsTried;
+
+        private CompiledRules(Pattern candidateRule, Pattern hardModeRule, Set<String> wordsTried) {
+            this.candidateRule = candidateRule;
+            this.hardModeRule = hardModeRule;
+            this.wordsTried = wordsTried;
+        }
+
+        boolean isCandidate(String word) {
+            return !wordsTried.contains(word.toLowerCase()) && candidateRule.matcher(word).matches();
+        }
+
+        boolean isHardModeLegal(String word) {
+            return hardModeRule.matcher(word).matches();
+        }
+    }
+
+    static CompiledRules compileRules(List<Guess> history) {
         LetterResponse.GrayCharacterClass.clear(); // is it bad or even worse to use LetterResponse.GrayCharacterClass.grayLetters.clear();
         StringBuilder patternBuilder = new StringBuilder("(?i)^"); //start with ^ to anchor us to start search at begining of the resulting string and (?i) as case insensitive flag
+        StringBuilder hardModeBuilder = new StringBuilder("(?i)^");
+        Map<Character, Integer> lettersToReuse = new TreeMap<>(); //most copies of a letter that any one guess showed green or yellow
+        Set<String> wordsTried = new HashSet<>();
         for (Guess guessentry : history) {
+            wordsTried.add(guessentry.wordGuessed.toLowerCase());
+            Map<Character, Integer> revealed = new HashMap<>();
             for (WordleResponse letter : guessentry.feedback) {
                 //we build the new regex rule each turn by appending the responses from every previous guess onto eachother for one massive filter
                 patternBuilder.append(letter.response.regexSegment(letter.index, letter.letter));
+                hardModeBuilder.append(letter.response.hardModeSegment(letter.index, letter.letter));
+                if (letter.response != LetterResponse.WRONG_LETTER) {
+                    revealed.merge(Character.toLowerCase(letter.letter), 1, Integer::sum);
+                }
             }
+            revealed.forEach((c, count) -> lettersToReuse.merge(c, count, Math::max));
         }
         patternBuilder.append(LetterResponse.GrayCharacterClass.makeRule());
         patternBuilder.append(".{5}$");// ending with this always enforces we accept exactly 5 letters
-        return Pattern.compile(patternBuilder.toString(), Pattern.CASE_INSENSITIVE);
+
+        //two yellow e's in one guess means the next guess needs two e's, so the lookahead repeats .*e that many times
+        lettersToReuse.forEach((c, count) -> hardModeBuilder.append(count == 1 ? "(?=.*" + c + ")" : "(?=(?:.*" + c + "){" + count + "})"));
+        hardModeBuilder.append(".{5}$");
+
+        return new CompiledRules(Pattern.compile(patternBuilder.toString(), Pattern.CASE_INSENSITIVE),
+                Pattern.compile(hardModeBuilder.toString(), Pattern.CASE_INSENSITIVE), wordsTried);
     }
 
 
@@ -209,6 +286,7 @@ public class RegExWordle {
 //        final String RESET     = "\u001B[0m";
 //
 //        Scanner in = new Scanner(System.in);
+//        List<String> everyPreviousWinningWordle = WordleHistoryStore.load().answers(); //past answers now live in the merged history store
 //        String secret = everyPreviousWinningWordle
 //                .get(new Random().nextInt(everyPreviousWinningWordle.size()));
 //
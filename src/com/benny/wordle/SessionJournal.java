@@ -0,0 +1,366 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of every solver session's guesses so a restart doesn't lose games in progress
+ *
+ * every update is one fixed size 18 byte record: type (1 byte), session id (long), packed guess (5 bytes, see GuessCodec), crc32 (int)
+ * records go into numbered segment files (journal-00000000000000000001.seg ...) and a new segment is started once the current one
+ * would pass maxSegmentBytes, every open also starts a fresh segment so replayed files are never appended to again
+ *
+ * durability uses group commit: callers get a CompletableFuture back right away, one flusher thread takes everything queued
+ * since its last fsync, writes it in a single call and fsyncs once, so N concurrent sessions cost one fsync instead of N
+ *
+ * on open the existing segments are replayed with plain channel reads (no mmap, so nothing still maps a file we might truncate),
+ * a torn record at the end of the newest segment (crash in the middle of a write) is cut off, a bad record anywhere else
+ * means real corruption and fails the open
+ *
+ * after replay the sessions still in progress are checkpointed: rewritten into one fresh segment that starts with a CHECKPOINT record,
+ * then every older segment is deleted, so finished games don't pile up and each open only replays the live sessions plus
+ * whatever was written since. the checkpoint is built under a .tmp name and renamed into place once fsynced, replay clears
+ * everything read so far when it meets a CHECKPOINT, so a crash before, during or after the deletes still replays the same sessions
+ */
+public class SessionJournal implements AutoCloseable {
+
+    static final int RECORD_BYTES = 1 + 8 + GuessCodec.GUESS_BYTES + 4;
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private static final byte GUESS = 1;
+    private static final byte END = 2;
+    private static final byte CHECKPOINT = 3; //first record of a checkpoint segment, everything before it is superseded
+    private static final int READ_RECORDS = 4096; //records per channel read during replay
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_TEMP = "checkpoint.tmp";
+
+    /** one queued record and whoever is waiting for it to hit the disk */
+    private static final class PendingRecord {
+        final byte[] bytes;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingRecord(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final Map<Long, List<Guess>> recovered;
+    private final Thread flusher;
+
+    private final Object lock = new Object();
+    private List<PendingRecord> pending = new ArrayList<>(); //guarded by lock
+    private boolean closed; //guarded by lock
+    private IOException failure; //guarded by lock, once the disk failed every later append fails too
+    private long fsyncs; //guarded by lock
+
+    //only touched by the flusher thread after open()
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentBytes;
+
+    private SessionJournal(Path dir, long maxSegmentBytes, Map<Long, List<Guess>> recovered, long lastSegment) throws IOException {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.recovered = recovered;
+        this.segmentNumber = lastSegment;
+        rotate();
+        this.flusher = new Thread(this::flushLoop, "session-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static SessionJournal open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static SessionJournal open(Path dir, long maxSegmentBytes) throws IOException {
+        if (maxSegmentBytes < RECORD_BYTES) throw new IllegalArgumentException("segments must hold at least one record");
+        Files.createDirectories(dir);
+        Files.deleteIfExists(dir.resolve(CHECKPOINT_TEMP)); //a checkpoint that crashed before its rename, the old segments are all still there
+        List<Path> segments = segments(dir);
+        Map<Long, List<Guess>> sessions = new LinkedHashMap<>();
+        long lastSegment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            if (Files.size(segment) == 0) {
+                Files.delete(segment); //left behind by an open that never wrote anything
+                continue;
+            }
+            replaySegment(segment, sessions, i == segments.size() - 1);
+        }
+        if (!segments.isEmpty()) {
+            lastSegment = checkpoint(dir, lastSegment + 1, sessions);
+            for (Path segment : segments) Files.deleteIfExists(segment); //oldest first
+            forceDirectory(dir);
+        }
+        return new SessionJournal(dir, maxSegmentBytes, sessions, lastSegment);
+    }
+
+    /** every unfinished session found on disk when this journal was opened, in the order they were started */
+    public Map<Long, List<Guess>> recoveredSessions() {
+        return Collections.unmodifiableMap(recovered);
+    }
+
+    /**
+     * rebuilds the remaining candidates of every recovered session
+     * sessions that sit at the exact same history (very common early in games) share one dictionary scan,
+     * the regex for each distinct history is built one at a time since getUpdatedRegexRule() uses static state,
+     * the scans themselves then run in parallel
+     */
+    public Map<Long, List<String>> recoveredCandidates() {
+        Map<List<Long>, Predicate<String>> filters = new HashMap<>();
+        Map<Long, List<Long>> keys = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<Guess>> session : recovered.entrySet()) {
+            List<Long> key = session.getValue().stream().map(GuessCodec::pack).collect(Collectors.toList());
+            keys.put(session.getKey(), key);
+            filters.computeIfAbsent(key, k -> RegExWordle.candidateFilter(session.getValue()));
+        }
+        List<String> dictionary = RegExWordle.dictionary();
+        Map<List<Long>, List<String>> candidates = filters.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> dictionary.stream().filter(e.getValue()).collect(Collectors.toList())));
+        Map<Long, List<String>> result = new LinkedHashMap<>();
+        keys.forEach((session, key) -> result.put(session, candidates.get(key)));
+        return result;
+    }
+
+    /** completes once the guess is fsynced, fails right away for guesses GuessCodec can't pack */
+    public CompletableFuture<Void> recordGuess(long sessionId, Guess guess) {
+        return enqueue(encode(GUESS, sessionId, GuessCodec.pack(guess)));
+    }
+
+    /** marks a session as over (won, lost or abandoned) so replay drops it */
+    public CompletableFuture<Void> endSession(long sessionId) {
+        return enqueue(encode(END, sessionId, 0));
+    }
+
+    /** how many fsyncs the flusher has done so far, appends / fsyncs is the average group commit size */
+    public long fsyncCount() {
+        synchronized (lock) {
+            return fsyncs;
+        }
+    }
+
+    /** waits for everything already queued to be written, then closes the current segment */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+    }
+
+    private CompletableFuture<Void> enqueue(byte[] record) {
+        PendingRecord p = new PendingRecord(record);
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("journal is closed");
+            if (failure != null) {
+                p.durable.completeExceptionally(new UncheckedIOException("journal failed earlier", failure));
+                return p.durable;
+            }
+            pending.add(p);
+            if (pending.size() == 1) lock.notifyAll();
+        }
+        return p.durable;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<PendingRecord> batch;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) return; //closed and drained
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            try {
+                write(batch);
+                for (PendingRecord p : batch) p.durable.complete(null);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    for (PendingRecord p : pending) p.durable.completeExceptionally(new UncheckedIOException(e));
+                    pending.clear();
+                }
+                for (PendingRecord p : batch) p.durable.completeExceptionally(new UncheckedIOException(e));
+            }
+        }
+    }
+
+    /** one write and one fsync for the whole batch, plus one extra of each for every segment the batch fills up */
+    private void write(List<PendingRecord> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_BYTES);
+        for (PendingRecord p : batch) {
+            if (segmentBytes + buffer.position() + RECORD_BYTES > maxSegmentBytes) {
+                flush(buffer);
+                rotate();
+            }
+            buffer.put(p.bytes);
+        }
+        flush(buffer);
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        while (buffer.hasRemaining()) segmentBytes += segment.write(buffer);
+        segment.force(false);
+        buffer.clear();
+        synchronized (lock) {
+            fsyncs++;
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (segment != null) segment.close();
+        segmentNumber++;
+        segment = FileChannel.open(dir.resolve(segmentName(segmentNumber)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+        forceDirectory(dir); //so the new file itself survives a crash, not just its contents
+    }
+
+    private static byte[] encode(byte type, long sessionId, long packedGuess) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.put(type);
+        record.putLong(sessionId);
+        record.put((byte) (packedGuess >>> 32));
+        record.putInt((int) packedGuess);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_BYTES - 4);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * writes the live sessions as segment number (CHECKPOINT record first, then every guess in session order) and returns number,
+     * the segment can be bigger than maxSegmentBytes when many sessions are live, it is never appended to so that's harmless
+     */
+    private static long checkpoint(Path dir, long number, Map<Long, List<Guess>> sessions) throws IOException {
+        int records = 1;
+        for (List<Guess> history : sessions.values()) records += history.size();
+        ByteBuffer buffer = ByteBuffer.allocate(records * RECORD_BYTES);
+        buffer.put(encode(CHECKPOINT, 0, 0));
+        sessions.forEach((sessionId, history) -> {
+            for (Guess guess : history) buffer.put(encode(GUESS, sessionId, GuessCodec.pack(guess)));
+        });
+        buffer.flip();
+        Path temp = dir.resolve(CHECKPOINT_TEMP);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(segmentName(number)), StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(dir);
+        return number;
+    }
+
+    private static void replaySegment(Path file, Map<Long, List<Guess>> sessions, boolean newest) throws IOException {
+        long validBytes = 0;
+        //only the newest segment can have a torn tail to cut off, so only it is opened for writing
+        Set<StandardOpenOption> options = newest ? EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE) : EnumSet.of(StandardOpenOption.READ);
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long size = channel.size();
+            ByteBuffer chunk = ByteBuffer.allocate(READ_RECORDS * RECORD_BYTES);
+            CRC32 crc = new CRC32();
+            byte[] record = new byte[RECORD_BYTES];
+            boolean bad = false;
+            while (!bad && validBytes + RECORD_BYTES <= size) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), (size - validBytes) / RECORD_BYTES * RECORD_BYTES));
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, validBytes + chunk.position()) < 0) throw new IOException(file + " shrank while replaying");
+                }
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    chunk.get(record);
+                    crc.reset();
+                    crc.update(record, 0, RECORD_BYTES - 4);
+                    ByteBuffer r = ByteBuffer.wrap(record);
+                    if ((int) crc.getValue() != r.getInt(RECORD_BYTES - 4)) {
+                        bad = true;
+                        break;
+                    }
+                    byte type = r.get();
+                    long sessionId = r.getLong();
+                    long packed = (long) (r.get() & 0xFF) << 32 | (r.getInt() & 0xFFFFFFFFL);
+                    if (type == GUESS) {
+                        sessions.computeIfAbsent(sessionId, id -> new ArrayList<>()).add(GuessCodec.unpack(packed));
+                    } else if (type == END) {
+                        sessions.remove(sessionId);
+                    } else if (type == CHECKPOINT) {
+                        sessions.clear(); //the checkpoint repeats every session that was still live
+                    } else {
+                        bad = true;
+                        break;
+                    }
+                    validBytes += RECORD_BYTES;
+                }
+            }
+            if (validBytes == size) return;
+            if (!newest) throw new IOException("corrupt record at byte " + validBytes + " of " + file);
+            //the crash happened while this record was being written, it was never acknowledged so it's safe to drop
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted() //zero padded numbers so name order is segment order
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String segmentName(long number) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void forceDirectory(Path dir) {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException notSupportedHere) {
+            //windows can't open a directory as a channel, the file data itself is still fsynced
+        }
+    }
+}
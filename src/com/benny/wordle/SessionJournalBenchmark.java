@@ -0,0 +1,98 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+import com.benny.wordle.RegExWordle.LetterResponse;
+import com.benny.wordle.RegExWordle.WordleResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Rough throughput numbers for SessionJournal's write and recovery paths (not a JMH harness, just wall clock)
+ * args: [threads=8] [guesses per thread=20000] [segment bytes=4MB so rotation gets exercised]
+ *
+ * every thread plays its own sessions and waits for each guess to be durable before sending the next one,
+ * which is how the solver service uses it, so the fsync count shows how well group commit batches the threads together
+ */
+public class SessionJournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int guessesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long segmentBytes = args.length > 2 ? Long.parseLong(args[2]) : 4L << 20;
+
+        List<String> dictionary = RegExWordle.dictionary();
+        Path dir = Files.createTempDirectory("session-journal-bench");
+        try {
+            long writeStart = System.nanoTime();
+            long fsyncs;
+            try (SessionJournal journal = SessionJournal.open(dir, segmentBytes)) {
+                List<Thread> players = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int player = t;
+                    Thread thread = new Thread(() -> play(journal, dictionary, player, guessesPerThread));
+                    players.add(thread);
+                    thread.start();
+                }
+                for (Thread thread : players) thread.join();
+                fsyncs = journal.fsyncCount();
+            }
+            double writeSeconds = (System.nanoTime() - writeStart) / 1e9;
+            long records = (long) threads * guessesPerThread;
+            System.out.printf("write:    %,d guesses from %d threads in %.2fs = %,.0f guesses/s, %,d fsyncs (%.1f guesses per fsync)%n",
+                    records, threads, writeSeconds, records / writeSeconds, fsyncs, (double) records / fsyncs);
+
+            long recoverStart = System.nanoTime();
+            int sessions;
+            try (SessionJournal reopened = SessionJournal.open(dir, segmentBytes)) {
+                sessions = reopened.recoveredSessions().size();
+                double replaySeconds = (System.nanoTime() - recoverStart) / 1e9;
+                System.out.printf("replay:   %,d bytes in %.3fs = %,.0f records/s, %,d open sessions%n",
+                        directorySize(dir), replaySeconds, records / replaySeconds, sessions);
+
+                long candidatesStart = System.nanoTime();
+                reopened.recoveredCandidates();
+                System.out.printf("rebuild:  candidates for %,d sessions in %.3fs%n", sessions, (System.nanoTime() - candidatesStart) / 1e9);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+            }
+        }
+    }
+
+    /** random 6 guess games, every game after the last is left open so the recovery has sessions to rebuild */
+    private static void play(SessionJournal journal, List<String> dictionary, int player, int guesses) {
+        Random random = new Random(player);
+        long session = (long) player << 32;
+        for (int i = 0; i < guesses; i++) {
+            if (i % 6 == 0 && i > 0) {
+                journal.endSession(session).join();
+                session++;
+            }
+            journal.recordGuess(session, randomGuess(random, dictionary)).join();
+        }
+    }
+
+    private static Guess randomGuess(Random random, List<String> dictionary) {
+        String word = dictionary.get(random.nextInt(dictionary.size()));
+        LetterResponse[] responses = LetterResponse.values();
+        List<WordleResponse> feedback = new ArrayList<>(5);
+        for (int i = 0; i < 5; i++) feedback.add(new WordleResponse(word.charAt(i), i, responses[random.nextInt(responses.length)]));
+        return new Guess(word, feedback);
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            long total = 0;
+            for (Path p : (Iterable<Path>) files::iterator) total += Files.size(p);
+            return total;
+        }
+    }
+}
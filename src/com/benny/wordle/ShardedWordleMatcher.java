@@ -0,0 +1,266 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.URISyntaxException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Scatter-gather version of RegExWordle.wordleMatches() for workloads too big for one JVM
+ * the dictionary is cut into one contiguous partition per worker process (WordleShardWorker) on this machine,
+ * every query is encoded once with GuessCodec.writeAnyHistory() (packed for real game histories, spelled out for anything else
+ * RegExWordle accepts, like partial feedback), sent to all workers over loopback sockets and the partial answers
+ * are glued back together in partition order, so the result is exactly what the single process wordleMatches() returns
+ *
+ * a worker that errors, disconnects or doesn't answer within READ_TIMEOUT_MS is killed and its partition is retried
+ * on the next live worker, only when every worker is gone does a query fail with an UncheckedIOException.
+ * the next query starts a replacement for every empty slot before it scatters, so capacity comes back after a crash
+ * (a replacement that can't start just leaves the slot empty until the query after that tries again)
+ */
+public class ShardedWordleMatcher implements AutoCloseable {
+
+    static final int READ_TIMEOUT_MS = 30_000;
+
+    /** reads one op's response off a worker connection */
+    private interface ResponseReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private final WorkerProcess[] workers; //a slot goes null once its worker is declared dead
+    private final ExecutorService scatter;
+
+    public ShardedWordleMatcher(int workerCount) throws IOException {
+        if (workerCount < 1) throw new IllegalArgumentException("need at least 1 worker but got " + workerCount);
+        workers = new WorkerProcess[workerCount];
+        scatter = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "wordle-scatter");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (int i = 0; i < workerCount; i++) workers[i] = WorkerProcess.start();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public List<String> wordleMatches(List<Guess> history) {
+        List<List<String>> partials = scatterGather(WordleShardWorker.OP_MATCHES, history, in -> {
+            int size = in.readInt();
+            List<String> words = new ArrayList<>(size);
+            byte[] word = new byte[GuessCodec.WORD_LENGTH];
+            for (int i = 0; i < size; i++) {
+                in.readFully(word);
+                words.add(new String(word, StandardCharsets.US_ASCII));
+            }
+            return words;
+        });
+        List<String> merged = new ArrayList<>();
+        for (List<String> partial : partials) merged.addAll(partial);
+        return merged;
+    }
+
+    public int countMatches(List<Guess> history) {
+        int total = 0;
+        for (int partial : scatterGather(WordleShardWorker.OP_COUNT, history, DataInputStream::readInt)) total += partial;
+        return total;
+    }
+
+    /** how many workers are alive right now, drops when one gets killed after a failure and recovers on the next query */
+    public synchronized int liveWorkers() {
+        int live = 0;
+        for (WorkerProcess w : workers) if (w != null) live++;
+        return live;
+    }
+
+    @Override
+    public void close() {
+        scatter.shutdownNow();
+        for (int i = 0; i < workers.length; i++) kill(i, worker(i));
+    }
+
+    private <T> List<T> scatterGather(int op, List<Guess> history, ResponseReader<T> reader) {
+        byte[] encodedHistory = encode(history); //encoded once, every partition sends the same bytes
+        respawnDead();
+        List<Future<T>> pending = new ArrayList<>(workers.length);
+        for (int partition = 0; partition < workers.length; partition++) {
+            int p = partition;
+            pending.add(scatter.submit(() -> query(p, op, encodedHistory, reader)));
+        }
+        List<T> partials = new ArrayList<>(workers.length);
+        try {
+            for (Future<T> f : pending) partials.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting on workers", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return partials;
+    }
+
+    /** try the partition's own worker first, then walk the others until one answers */
+    private <T> T query(int partition, int op, byte[] encodedHistory, ResponseReader<T> reader) {
+        IOException lastFailure = null;
+        for (int attempt = 0; attempt < workers.length; attempt++) {
+            int slot = (partition + attempt) % workers.length;
+            WorkerProcess worker = worker(slot);
+            if (worker == null) continue;
+            try {
+                return worker.call(op, partition, workers.length, encodedHistory, reader);
+            } catch (IOException e) {
+                lastFailure = e;
+                kill(slot, worker);
+            }
+        }
+        throw new UncheckedIOException("no live worker could answer partition " + partition,
+                lastFailure != null ? lastFailure : new IOException("all workers are dead"));
+    }
+
+    private synchronized WorkerProcess worker(int slot) {
+        return workers[slot];
+    }
+
+    /** started outside the lock so a slow JVM start doesn't hold up queries on the live workers */
+    private void respawnDead() {
+        for (int slot = 0; slot < workers.length; slot++) {
+            if (worker(slot) != null) continue;
+            WorkerProcess replacement;
+            try {
+                replacement = WorkerProcess.start();
+            } catch (IOException e) {
+                continue; //the partitions still get answered by the survivors, we try again next query
+            }
+            synchronized (this) {
+                if (workers[slot] == null && !scatter.isShutdown()) {
+                    workers[slot] = replacement;
+                    continue;
+                }
+            }
+            replacement.destroy(); //another query filled the slot first, or we're closing
+        }
+    }
+
+    /** only if the slot still holds the worker that failed, a concurrent query may already have put a healthy replacement there */
+    private synchronized void kill(int slot, WorkerProcess failed) {
+        if (failed == null || workers[slot] != failed) return;
+        failed.destroy();
+        workers[slot] = null;
+    }
+
+    private static byte[] encode(List<Guess> history) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(3 + history.size() * GuessCodec.GUESS_BYTES);
+        try {
+            GuessCodec.writeAnyHistory(new DataOutputStream(bytes), history);
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't happen writing to memory", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** one worker JVM and the socket we talk to it through, calls are serialized since the protocol is strictly request/response */
+    private static final class WorkerProcess {
+        private final Process process;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private WorkerProcess(Process process, Socket socket) throws IOException {
+            this.process = process;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        static WorkerProcess start() throws IOException {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            Process process = new ProcessBuilder(java, "-cp", classPath(), WordleShardWorker.class.getName())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try {
+                String line = awaitReadyLine(process);
+                if (line == null || !line.startsWith(WordleShardWorker.READY)) {
+                    throw new IOException("worker didn't start, said: " + line);
+                }
+                int port = Integer.parseInt(line.substring(WordleShardWorker.READY.length()).trim());
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setSoTimeout(READ_TIMEOUT_MS);
+                socket.setTcpNoDelay(true);
+                return new WorkerProcess(process, socket);
+            } catch (IOException | RuntimeException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+        }
+
+        /**
+         * the worker's first line of output, read on a helper thread so a JVM that hangs before printing READY
+         * costs READ_TIMEOUT_MS instead of blocking the constructor (or every later query's respawn) forever
+         */
+        private static String awaitReadyLine(Process process) throws IOException {
+            BufferedReader stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+            FutureTask<String> firstLine = new FutureTask<>(stdout::readLine);
+            Thread reader = new Thread(firstLine, "wordle-worker-ready");
+            reader.setDaemon(true); //start()'s caller kills the process on failure, which ends the read
+            reader.start();
+            try {
+                return firstLine.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IOException("worker didn't say READY within " + READ_TIMEOUT_MS + "ms", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException("couldn't read from worker", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for worker to start", e);
+            }
+        }
+
+        /**
+         * our own classpath plus wherever WordleShardWorker was loaded from, test runners like surefire or the junit console
+         * launcher load the classes through their own loader so java.class.path alone doesn't always have them
+         */
+        private static String classPath() {
+            String classPath = System.getProperty("java.class.path");
+            CodeSource source = WordleShardWorker.class.getProtectionDomain().getCodeSource();
+            if (source == null || source.getLocation() == null) return classPath;
+            try {
+                return Paths.get(source.getLocation().toURI()) + File.pathSeparator + classPath;
+            } catch (URISyntaxException | IllegalArgumentException notAFile) {
+                return classPath;
+            }
+        }
+
+        synchronized <T> T call(int op, int partition, int partitions, byte[] encodedHistory, ResponseReader<T> reader) throws IOException {
+            out.writeByte(op);
+            out.writeInt(partition);
+            out.writeInt(partitions);
+            out.write(encodedHistory);
+            out.flush();
+            return reader.read(in);
+        }
+
+        void destroy() {
+            try {
+                socket.close(); //the worker exits on its own once it sees EOF
+            } catch (IOException ignored) {
+            }
+            process.destroy();
+            try {
+                if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
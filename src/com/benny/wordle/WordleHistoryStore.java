@@ -0,0 +1,432 @@
+package com.benny.wordle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * One deduplicated history of past answers built from every file we keep them in:
+ *   wordle_history.csv / wordle_history.json   what the NYT fetcher scraped, date -> word, trusted the most
+ *   PastWordles.txt                            "ABACK 110 ▲" word plus game number (game 0 = 2021-06-19), "241a" style numbers are alternates
+ *   CleanWordList.txt                          bare words without any date
+ *
+ * every source is streamed through NIO and validated line by line (a malformed line fails the build with its file and line number),
+ * then every date gets the word of the most trusted source that dated it, any other word claimed for that date is recorded as a Conflict.
+ * words that never won a date (undated ones and conflict losers) are kept at the end as undated entries so "was this ever used" still sees them
+ *
+ * the result is written to one binary file that gets read back with a single mmap:
+ *   int magic, int source count, per source (path, format, size, last modified) so refresh() can skip the rebuild when nothing changed
+ *   int entry count, int dated count, entries as (int epoch day, int packed word) with dated ones in day order then undated ones by word
+ *   word index: entry positions sorted by packed word for binary search
+ *   int conflict count, conflicts as (int epoch day, int kept word, int dropped word, byte source)
+ * a packed word is 5 bits per letter with the first letter highest so comparing packed ints is alphabetical order
+ *
+ * several JVMs may refresh the same file at once: each builds into its own temp file and moves it over the old one,
+ * since every builder writes the same bytes for the same sources it doesn't matter whose move lands last.
+ * an open store keeps its file mapped until it is garbage collected, and windows refuses to replace a mapped file,
+ * so only refresh() before any store of that file is open (once at startup, like load() from a static holder does).
+ * a move that still fails is fine as long as the file already there is up to date, then we just open that one
+ */
+public final class WordleHistoryStore {
+
+    public static final Path DEFAULT_FILE = Paths.get("wordle_history.bin");
+    public static final LocalDate FIRST_DAY = LocalDate.of(2021, 6, 19); //same as NYTWordleHistoryFetcher.START
+
+    private static final int MAGIC = 0x57485331; //"WHS1"
+    private static final int UNDATED = Integer.MIN_VALUE;
+    private static final int ENTRY_BYTES = 8;
+
+    private static final Pattern CSV_LINE = Pattern.compile("^(\\d{4}-\\d{2}-\\d{2}),([A-Za-z]{5})$");
+    private static final Pattern JSON_PAIR = Pattern.compile("\"(\\d{4}-\\d{2}-\\d{2})\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern PAST_WORDLES_LINE = Pattern.compile("^([A-Za-z]{5}) (\\d+)([a-z]?)(?:\\s+\u25B2)?\\s*$");
+    private static final Pattern WORD_LINE = Pattern.compile("^[A-Za-z]{5}$");
+
+    public enum Format {
+        HISTORY_CSV, HISTORY_JSON, PAST_WORDLES, WORD_LIST
+    }
+
+    /** one input file and how to read it, the order in the list breaks ties between equally trusted sources */
+    public static final class Source {
+        final Path path;
+        final Format format;
+
+        public Source(Path path, Format format) {
+            this.path = path;
+            this.format = format;
+        }
+    }
+
+    public static final List<Source> DEFAULT_SOURCES = List.of(
+            new Source(Paths.get("wordle_history.csv"), Format.HISTORY_CSV),
+            new Source(Paths.get("wordle_history.json"), Format.HISTORY_JSON),
+            new Source(Paths.get("src/WordleStarterChecker/PastWordles.txt"), Format.PAST_WORDLES),
+            new Source(Paths.get("src/WordleStarterChecker/CleanWordList.txt"), Format.WORD_LIST));
+
+    /** a word that lost its date to a more trusted source, when kept equals dropped the word already won an earlier date */
+    public static final class Conflict {
+        public final LocalDate date;
+        public final String kept;
+        public final String dropped;
+        public final Path source;
+
+        Conflict(LocalDate date, String kept, String dropped, Path source) {
+            this.date = date;
+            this.kept = kept;
+            this.dropped = dropped;
+            this.source = source;
+        }
+
+        @Override
+        public String toString() {
+            return kept.equals(dropped)
+                    ? date + ": " + kept + " was already the answer on another day (" + source + ")"
+                    : date + ": kept " + kept + ", dropped " + dropped + " from " + source;
+        }
+    }
+
+    private final MappedByteBuffer map;
+    private final List<Path> sourcePaths;
+    private final int entryCount;
+    private final int datedCount;
+    private final int entriesOffset;
+    private final int indexOffset;
+    private final int conflictsOffset;
+
+    private WordleHistoryStore(MappedByteBuffer map) throws IOException {
+        this.map = map;
+        ByteBuffer header = map.duplicate();
+        if (header.getInt() != MAGIC) throw new IOException("not a wordle history file");
+        int sources = header.getInt();
+        sourcePaths = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++) {
+            sourcePaths.add(Paths.get(readString(header)));
+            header.position(header.position() + 1 + 8 + 8); //format, size, last modified
+        }
+        entryCount = header.getInt();
+        datedCount = header.getInt();
+        entriesOffset = header.position();
+        indexOffset = entriesOffset + entryCount * ENTRY_BYTES;
+        conflictsOffset = indexOffset + entryCount * 4;
+    }
+
+    /** the default sources into the default file, rebuilt only if one of the sources changed */
+    public static WordleHistoryStore load() {
+        try {
+            return refresh(DEFAULT_FILE, DEFAULT_SOURCES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load wordle history into " + DEFAULT_FILE, e);
+        }
+    }
+
+    /** rebuilds file if a source changed and opens it, see the class comment for why this belongs before any open() of the same file */
+    public static WordleHistoryStore refresh(Path file, List<Source> sources) throws IOException {
+        if (!upToDate(file, sources)) build(file, sources);
+        return open(file);
+    }
+
+    public static WordleHistoryStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new WordleHistoryStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** every entry, dated ones first */
+    public int size() {
+        return entryCount;
+    }
+
+    public int datedCount() {
+        return datedCount;
+    }
+
+    public String word(int i) {
+        return unpackWord(map.getInt(entryOffset(i) + 4));
+    }
+
+    /** null for undated entries */
+    public LocalDate date(int i) {
+        int day = map.getInt(entryOffset(i));
+        return day == UNDATED ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /** the answers in date order, undated words left out */
+    public List<String> answers() {
+        List<String> answers = new ArrayList<>(datedCount);
+        for (int i = 0; i < datedCount; i++) answers.add(word(i));
+        return answers;
+    }
+
+    /** null if we don't know the answer of that day */
+    public String answerOn(LocalDate date) {
+        long day = date.toEpochDay();
+        int low = 0;
+        int high = datedCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midDay = map.getInt(entryOffset(mid));
+            if (midDay < day) low = mid + 1;
+            else if (midDay > day) high = mid - 1;
+            else return word(mid);
+        }
+        return null;
+    }
+
+    /** whether the word was ever used according to any source, dated or not */
+    public boolean contains(String word) {
+        if (!WORD_LINE.matcher(word).matches()) return false;
+        int packed = packWord(word);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midWord = map.getInt(entryOffset(map.getInt(indexOffset + mid * 4)) + 4);
+            if (midWord < packed) low = mid + 1;
+            else if (midWord > packed) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    public List<Conflict> conflicts() {
+        int count = map.getInt(conflictsOffset);
+        List<Conflict> conflicts = new ArrayList<>(count);
+        int offset = conflictsOffset + 4;
+        for (int i = 0; i < count; i++, offset += 13) {
+            conflicts.add(new Conflict(LocalDate.ofEpochDay(map.getInt(offset)), unpackWord(map.getInt(offset + 4)),
+                    unpackWord(map.getInt(offset + 8)), sourcePaths.get(map.get(offset + 12))));
+        }
+        return conflicts;
+    }
+
+    private int entryOffset(int i) {
+        Objects.checkIndex(i, entryCount);
+        return entriesOffset + i * ENTRY_BYTES;
+    }
+
+    // ---------------------------------------------------------------- building
+
+    /** one source saying "this word" and maybe "on this day", lower priority wins */
+    private static final class Claim {
+        final int day;
+        final String word;
+        final int priority;
+        final int source;
+
+        Claim(int day, String word, int priority, int source) {
+            this.day = day;
+            this.word = word;
+            this.priority = priority;
+            this.source = source;
+        }
+    }
+
+    private static void build(Path file, List<Source> sources) throws IOException {
+        if (sources.size() > Byte.MAX_VALUE) throw new IllegalArgumentException("too many sources: " + sources.size());
+        List<Claim> claims = new ArrayList<>();
+        for (int s = 0; s < sources.size(); s++) {
+            if (Files.exists(sources.get(s).path)) read(sources.get(s), s, claims);
+        }
+        claims.sort(Comparator.<Claim>comparingInt(c -> c.priority).thenComparingInt(c -> c.source));
+
+        Map<Integer, Claim> winners = new TreeMap<>();
+        Set<String> winningWords = new HashSet<>();
+        Set<String> leftovers = new TreeSet<>();
+        List<Claim[]> conflicts = new ArrayList<>(); //{kept, dropped}
+        for (Claim claim : claims) {
+            if (claim.day == UNDATED) {
+                leftovers.add(claim.word);
+                continue;
+            }
+            Claim winner = winners.get(claim.day);
+            if (winner == null) {
+                winners.put(claim.day, claim);
+            } else if (!winner.word.equals(claim.word)) {
+                conflicts.add(new Claim[]{winner, claim});
+                leftovers.add(claim.word);
+            }
+        }
+        Map<String, Claim> firstWin = new HashMap<>();
+        for (Claim winner : winners.values()) {
+            Claim earlier = firstWin.putIfAbsent(winner.word, winner);
+            if (earlier != null) conflicts.add(new Claim[]{winner, winner});
+            winningWords.add(winner.word);
+        }
+        leftovers.removeAll(winningWords);
+        conflicts.sort(Comparator.comparingInt(c -> c[0].day));
+
+        //unique per call so concurrent builders never write into or move away each other's temp file
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(sources.size());
+                for (Source source : sources) {
+                    writeString(out, source.path.toString());
+                    out.writeByte(source.format.ordinal());
+                    long[] fingerprint = fingerprint(source.path);
+                    out.writeLong(fingerprint[0]);
+                    out.writeLong(fingerprint[1]);
+                }
+
+                int entryCount = winners.size() + leftovers.size();
+                out.writeInt(entryCount);
+                out.writeInt(winners.size());
+                List<Integer> packedWords = new ArrayList<>(entryCount);
+                for (Claim winner : winners.values()) {
+                    out.writeInt(winner.day);
+                    out.writeInt(packWord(winner.word));
+                    packedWords.add(packWord(winner.word));
+                }
+                for (String word : leftovers) {
+                    out.writeInt(UNDATED);
+                    out.writeInt(packWord(word));
+                    packedWords.add(packWord(word));
+                }
+                Integer[] byWord = new Integer[entryCount];
+                for (int i = 0; i < entryCount; i++) byWord[i] = i;
+                Arrays.sort(byWord, Comparator.comparingInt(packedWords::get)); //stable, so a repeated word keeps day order
+                for (int position : byWord) out.writeInt(position);
+
+                out.writeInt(conflicts.size());
+                for (Claim[] conflict : conflicts) {
+                    out.writeInt(conflict[0].day);
+                    out.writeInt(packWord(conflict[0].word));
+                    out.writeInt(packWord(conflict[1].word));
+                    out.writeByte(conflict[1].source);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //lost the race to another builder (or windows won't replace a file someone still has mapped), their file is just as good
+            if (!upToDate(file, sources)) throw e;
+        } finally {
+            Files.deleteIfExists(temp); //already gone after a successful move
+        }
+    }
+
+    private static void read(Source source, int index, List<Claim> claims) throws IOException {
+        switch (source.format) {
+            case HISTORY_CSV -> readLines(source.path, StandardCharsets.US_ASCII, (line, number) -> {
+                Matcher m = matchOrFail(CSV_LINE, line, source.path, number);
+                claims.add(new Claim(parseDay(m.group(1), source.path, number), m.group(2).toLowerCase(), 0, index));
+            });
+            case PAST_WORDLES -> readLines(source.path, StandardCharsets.UTF_8, (line, number) -> {
+                Matcher m = matchOrFail(PAST_WORDLES_LINE, line, source.path, number);
+                int day = Math.toIntExact(FIRST_DAY.toEpochDay() + Long.parseLong(m.group(2)));
+                int priority = m.group(3).isEmpty() ? 1 : 2; //"241a" is an alternate answer, it loses to the plain number
+                claims.add(new Claim(day, m.group(1).toLowerCase(), priority, index));
+            });
+            case WORD_LIST -> readLines(source.path, StandardCharsets.US_ASCII, (line, number) -> {
+                matchOrFail(WORD_LINE, line, source.path, number);
+                claims.add(new Claim(UNDATED, line.toLowerCase(), 3, index));
+            });
+            case HISTORY_JSON -> {
+                //a flat {"date" : "word"} object, small enough that a regex over the whole text beats pulling in a json parser here.
+                //read into a string instead of mapped so the fetcher can still rewrite the file on windows while a store is open
+                Matcher m = JSON_PAIR.matcher(Files.readString(source.path, StandardCharsets.US_ASCII));
+                while (m.find()) {
+                    String word = m.group(2);
+                    if (!WORD_LINE.matcher(word).matches()) {
+                        throw new IOException(source.path + ": bad word \"" + word + "\" for " + m.group(1));
+                    }
+                    claims.add(new Claim(parseDay(m.group(1), source.path, -1), word.toLowerCase(), 0, index));
+                }
+            }
+        }
+    }
+
+    private interface LineHandler {
+        void handle(String line, int number) throws IOException;
+    }
+
+    private static void readLines(Path path, Charset charset, LineHandler handler) throws IOException {
+        try (Stream<String> lines = Files.lines(path, charset)) {
+            int number = 0;
+            for (String line : (Iterable<String>) lines::iterator) {
+                number++;
+                if (!line.isBlank()) handler.handle(line.strip(), number);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Matcher matchOrFail(Pattern pattern, String line, Path path, int number) throws IOException {
+        Matcher m = pattern.matcher(line);
+        if (!m.matches()) throw new IOException(path + ":" + number + ": can't parse \"" + line + "\"");
+        return m;
+    }
+
+    private static int parseDay(String date, Path path, int number) throws IOException {
+        try {
+            return Math.toIntExact(LocalDate.parse(date).toEpochDay());
+        } catch (DateTimeParseException e) {
+            throw new IOException(path + (number > 0 ? ":" + number : "") + ": bad date " + date, e);
+        }
+    }
+
+    // ---------------------------------------------------------------- change detection
+
+    private static boolean upToDate(Path file, List<Source> sources) throws IOException {
+        if (!Files.exists(file)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != sources.size()) return false;
+            for (Source source : sources) {
+                if (!readString(in).equals(source.path.toString()) || in.readByte() != source.format.ordinal()) return false;
+                long[] fingerprint = fingerprint(source.path);
+                if (in.readLong() != fingerprint[0] || in.readLong() != fingerprint[1]) return false;
+            }
+            return true;
+        } catch (EOFException truncated) {
+            return false;
+        }
+    }
+
+    /** size and last modified time, {-1, -1} for a missing file */
+    private static long[] fingerprint(Path path) throws IOException {
+        if (!Files.exists(path)) return new long[]{-1, -1};
+        return new long[]{Files.size(path), Files.getLastModifiedTime(path).toMillis()};
+    }
+
+    // ---------------------------------------------------------------- encoding helpers
+
+    static int packWord(String word) {
+        int packed = 0;
+        for (int i = 0; i < 5; i++) packed = packed << 5 | (Character.toLowerCase(word.charAt(i)) - 'a' + 1);
+        return packed;
+    }
+
+    static String unpackWord(int packed) {
+        char[] word = new char[5];
+        for (int i = 4; i >= 0; i--, packed >>>= 5) word[i] = (char) ('a' + (packed & 0x1F) - 1);
+        return new String(word);
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,230 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Streaming version of RegExWordle.wordleMatches() for callers that only show a handful of candidates
+ * instead of building the whole filtered list up front, the dictionary is cut into fixed size chunks that get scanned in parallel
+ * and every match is pushed to the subscriber as soon as its chunk finds it (so the order is not the dictionary order)
+ *
+ * chunks are only handed to the executor while the subscriber still has unfilled demand, so a subscriber that requests 8
+ * words and then cancels stops the scan after roughly one chunk per core instead of walking all 14,855 words
+ *
+ * the optional summary callback gets the exact number of candidates once the whole dictionary was scanned,
+ * since that needs every chunk, a publisher with a summary keeps counting (without emitting) after the subscriber cancels.
+ * it is the last thing before onComplete, called from drain() like every other signal so it never overlaps an onNext,
+ * after a cancel it comes from whichever thread finishes the scan (no onNext can follow then). never after an onError
+ */
+public class WordleMatchPublisher implements Flow.Publisher<String> {
+
+    //small enough that the first words show up fast, big enough that task overhead doesn't dominate (~58 chunks total)
+    static final int CHUNK_SIZE = 256;
+
+    private final List<Guess> history;
+    private final Executor executor;
+    private final int parallelism;
+    private final IntConsumer summary; //null when the caller doesn't want the total
+
+    public WordleMatchPublisher(List<Guess> history) {
+        this(history, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), null);
+    }
+
+    public WordleMatchPublisher(List<Guess> history, IntConsumer summary) {
+        this(history, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), summary);
+    }
+
+    /**
+     * @param parallelism max number of chunks being scanned at the same time
+     * @param summary called once with the exact candidate count when the scan is finished, may be null
+     */
+    public WordleMatchPublisher(List<Guess> history, Executor executor, int parallelism, IntConsumer summary) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1 but was " + parallelism);
+        this.history = List.copyOf(Objects.requireNonNull(history, "history"));
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.parallelism = parallelism;
+        this.summary = summary;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        //compiled here on the subscribing thread, the chunk tasks only ever see the finished predicate
+        ScanSubscription subscription = new ScanSubscription(subscriber, RegExWordle.candidateFilter(history), RegExWordle.dictionary());
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    /**
+     * one independent scan per subscriber
+     * the chunk tasks fill the buffer and drain() is the only place that talks to the subscriber,
+     * the wip counter makes sure only one thread is inside drain() at a time (onNext must never be called concurrently)
+     */
+    private final class ScanSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super String> subscriber;
+        private final Predicate<String> isCandidate;
+        private final List<String> dictionary;
+        private final int chunkCount;
+
+        private final Queue<String> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger(); //ConcurrentLinkedQueue.size() walks the whole queue
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger chunksDone = new AtomicInteger();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile boolean scanDone;
+        private volatile Throwable error; //set before cancelled, drain() hands it to the subscriber
+        private final AtomicBoolean summarized = new AtomicBoolean(); //drain() and a post-cancel finishScan() can both get there
+
+        ScanSubscription(Flow.Subscriber<? super String> subscriber, Predicate<String> isCandidate, List<String> dictionary) {
+            this.subscriber = subscriber;
+            this.isCandidate = isCandidate;
+            this.dictionary = dictionary;
+            this.chunkCount = (dictionary.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        }
+
+        void start() {
+            if (chunkCount == 0) {
+                finishScan();
+                drain();
+            } else {
+                schedule();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                //reactive streams rule 3.9, but delivered from drain() so onError can't overlap an onNext on another thread
+                if (error == null) error = new IllegalArgumentException("request must be positive but was " + n);
+                cancel();
+                drain();
+                return;
+            }
+            requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n); //cap at unbounded instead of overflowing
+            schedule();
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /** hand out more chunks while there is unfilled demand (or always when we owe a summary) */
+        private void schedule() {
+            while (summary != null || (!cancelled && buffered.get() < requested.get())) {
+                int running = inFlight.get();
+                if (running >= parallelism) return;
+                if (!inFlight.compareAndSet(running, running + 1)) continue;
+                int chunk = nextChunk.getAndIncrement();
+                if (chunk >= chunkCount) {
+                    inFlight.decrementAndGet();
+                    return;
+                }
+                executor.execute(() -> scan(chunk));
+            }
+        }
+
+        private void scan(int chunk) {
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, dictionary.size());
+            int found = 0;
+            for (int i = from; i < to; i++) {
+                if (cancelled && summary == null) break; //nobody is waiting on this chunk anymore
+                String candidate = dictionary.get(i);
+                if (isCandidate.test(candidate)) {
+                    found++;
+                    if (!cancelled) {
+                        buffer.offer(candidate);
+                        buffered.incrementAndGet();
+                    }
+                }
+            }
+            total.addAndGet(found);
+            inFlight.decrementAndGet();
+            if (chunksDone.incrementAndGet() == chunkCount) finishScan();
+            schedule();
+            drain();
+        }
+
+        private void finishScan() {
+            scanDone = true;
+            if (cancelled) summarize(); //drain() won't run again for a cancelled subscriber, otherwise it delivers the summary
+        }
+
+        /** at most once, and only for a finished scan that didn't end in an error */
+        private void summarize() {
+            if (summary == null || !scanDone || error != null) return;
+            if (summarized.compareAndSet(false, true)) summary.accept(total.get());
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r) {
+                    if (terminated()) return;
+                    boolean done = scanDone; //read before poll() so an empty poll after done really means nothing is left
+                    String candidate = buffer.poll();
+                    if (candidate == null) {
+                        if (done) {
+                            complete();
+                            return;
+                        }
+                        break;
+                    }
+                    buffered.decrementAndGet();
+                    subscriber.onNext(candidate);
+                    emitted++;
+                }
+                if (emitted == r) {
+                    if (terminated()) return;
+                    if (scanDone && buffer.isEmpty()) {
+                        complete();
+                        return;
+                    }
+                }
+                if (emitted != 0) {
+                    if (r != Long.MAX_VALUE) requested.addAndGet(-emitted);
+                    schedule(); //the demand we just filled may have been the only thing holding back the next chunks
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /** true once cancelled, also signals a pending error (only ever called from inside drain()) */
+        private boolean terminated() {
+            if (!cancelled) return false;
+            buffer.clear();
+            Throwable e = error;
+            if (e != null) subscriber.onError(e); //wip stays non zero after this return so it can't be signalled twice
+            else summarize(); //cancelled after the scan finished, finishScan() may have seen cancelled too late
+            return true;
+        }
+
+        private void complete() {
+            summarize(); //before cancelled is set, so a finishScan() racing us can't mistake this for a cancel
+            cancelled = true; //terminal, wip is left non zero on purpose so drain() never runs again
+            subscriber.onComplete();
+        }
+    }
+}
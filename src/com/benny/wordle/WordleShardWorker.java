@@ -0,0 +1,83 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.Guess;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * One worker process of ShardedWordleMatcher, started by the coordinator as its own JVM
+ * it binds a loopback port, prints "READY <port>" on stdout so the coordinator knows where to connect,
+ * serves that single connection and exits as soon as the coordinator hangs up (so no orphans are left behind)
+ *
+ * every request names the partition it wants instead of the worker owning a fixed one,
+ * that way when a worker dies the coordinator can hand its partition to any of the survivors
+ *
+ * request:  op (1 byte), partition (int), partition count (int), history (GuessCodec.writeAnyHistory)
+ * response: OP_MATCHES -> match count (int) then each match as 5 ascii bytes in dictionary order
+ *           OP_COUNT   -> match count (int)
+ */
+public class WordleShardWorker {
+
+    static final String READY = "READY ";
+    static final int OP_MATCHES = 1;
+    static final int OP_COUNT = 2;
+
+    public static void main(String[] args) throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println(READY + server.getLocalPort());
+            System.out.flush();
+            try (Socket coordinator = server.accept()) {
+                coordinator.setTcpNoDelay(true);
+                serve(new DataInputStream(new BufferedInputStream(coordinator.getInputStream())),
+                        new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream())));
+            }
+        }
+    }
+
+    private static void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        List<String> dictionary = RegExWordle.dictionary();
+        while (true) {
+            int op;
+            try {
+                op = in.readUnsignedByte();
+            } catch (EOFException coordinatorHungUp) {
+                return;
+            }
+            int partition = in.readInt();
+            int partitions = in.readInt();
+            List<Guess> history = GuessCodec.readAnyHistory(in);
+
+            //candidateFilter() touches the static gray letter set so it's built here on the single connection thread,
+            //only the finished predicate goes to the parallel stream
+            Predicate<String> isCandidate = RegExWordle.candidateFilter(history);
+            List<String> slice = partitionOf(dictionary, partition, partitions);
+
+            if (op == OP_COUNT) {
+                out.writeInt((int) slice.parallelStream().filter(isCandidate).count());
+            } else if (op == OP_MATCHES) {
+                List<String> matches = slice.parallelStream().filter(isCandidate).collect(Collectors.toList()); //keeps dictionary order
+                out.writeInt(matches.size());
+                for (String word : matches) out.writeBytes(word); //every dictionary word is 5 lowercase ascii letters
+            } else {
+                throw new IOException("unknown op " + op);
+            }
+            out.flush();
+        }
+    }
+
+    /** contiguous slices so gluing the partial results back together in partition order gives the single process order */
+    static List<String> partitionOf(List<String> dictionary, int partition, int partitions) {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("partition " + partition + " of " + partitions);
+        }
+        int from = (int) ((long) dictionary.size() * partition / partitions);
+        int to = (int) ((long) dictionary.size() * (partition + 1) / partitions);
+        return dictionary.subList(from, to);
+    }
+}
@@ -0,0 +1,105 @@
+package com.benny.wordle;
+
+import com.benny.wordle.RegExWordle.CompiledRules;
+import com.benny.wordle.RegExWordle.Guess;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * One turn of the solver: what the answer can still be, what we're allowed to guess, and which guesses look best
+ *
+ * in hard mode every guess has to reuse the revealed hints (greens in the same spot, yellows anywhere, as many copies as were revealed).
+ * that rule comes out of the same RegExWordle.compileRules() replay as the candidate regex, and the constructor walks the dictionary
+ * once to fill both the candidate list and the legal guess pool, so checking a guess is a set lookup plus one regex match
+ * and ranking the pool never goes back to the dictionary
+ *
+ * suggestions score each legal guess on how evenly its letters split the remaining candidates (a letter every candidate has, or none has,
+ * tells us nothing) using LetterStatistics over the candidates, ties go to words that could still be the answer
+ */
+public class WordleSolver {
+
+    private final boolean hardMode;
+    private final CompiledRules rules;
+    private final List<String> candidates = new ArrayList<>();
+    private final List<String> legalGuesses = new ArrayList<>();
+    private final Set<String> candidateSet;
+
+    public WordleSolver(List<Guess> history, boolean hardMode) {
+        this.hardMode = hardMode;
+        this.rules = RegExWordle.compileRules(history);
+        for (String word : RegExWordle.dictionary()) {
+            if (rules.isCandidate(word)) candidates.add(word);
+            if (!hardMode || rules.isHardModeLegal(word)) legalGuesses.add(word);
+        }
+        this.candidateSet = new HashSet<>(candidates);
+    }
+
+    public boolean isHardMode() {
+        return hardMode;
+    }
+
+    /** the same list RegExWordle.wordleMatches() returns for this history */
+    public List<String> candidates() {
+        return candidates;
+    }
+
+    /** every word we may guess next, the whole dictionary unless hard mode narrows it */
+    public List<String> legalGuesses() {
+        return legalGuesses;
+    }
+
+    public boolean isLegalGuess(String word) {
+        return RegExWordle.isInDictionary(word) && (!hardMode || rules.isHardModeLegal(word));
+    }
+
+    /** like isLegalGuess() but says which rule the guess broke, for showing the player */
+    public void checkGuess(String word) {
+        if (!RegExWordle.isInDictionary(word)) throw new IllegalArgumentException(word + " is not in the dictionary");
+        if (hardMode && !rules.isHardModeLegal(word)) {
+            throw new IllegalArgumentException(word + " doesn't reuse every revealed hint (hard mode)");
+        }
+    }
+
+    /**
+     * the best limit guesses out of legalGuesses(), best first
+     * words already guessed are left out, in hard mode an earlier guess usually still passes the rule but it can't tell us anything new
+     */
+    public List<String> suggestions(int limit) {
+        if (candidates.size() <= 2) return candidates.stream().limit(limit).collect(Collectors.toList()); //just guess one of them
+        LetterStatistics stats = LetterStatistics.of(candidates);
+        int remaining = stats.wordCount();
+        int[] scores = new int[legalGuesses.size()]; //scored once up front instead of on every comparison
+        for (int i = 0; i < scores.length; i++) scores[i] = score(legalGuesses.get(i), stats, remaining);
+        return IntStream.range(0, scores.length)
+                .filter(i -> !rules.wordsTried.contains(legalGuesses.get(i)))
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> -scores[i])
+                        .thenComparing(i -> !candidateSet.contains(legalGuesses.get(i)))
+                        .thenComparing(legalGuesses::get))
+                .limit(limit)
+                .map(legalGuesses::get)
+                .collect(Collectors.toList());
+    }
+
+    /** a letter (or letter at a position) scores best when it's in about half the candidates, repeated letters only count once */
+    private static int score(String word, LetterStatistics stats, int remaining) {
+        int score = 0;
+        int seen = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            int positional = stats.positionCount(c, i);
+            score += Math.min(positional, remaining - positional);
+            if ((seen & 1 << (c - 'a')) != 0) continue;
+            seen |= 1 << (c - 'a');
+            int containing = stats.wordsContaining(c);
+            score += Math.min(containing, remaining - containing);
+        }
+        return score;
+    }
+}
@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.*;
+
+import com.benny.wordle.GuessCodec;
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import com.benny.wordle.RegExWordle.Guess;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.io.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuessCodecTest {
+
+    /** EAGLE against secret ALLEE: E→Y, A→Y, G→X, L→Y, E→G */
+    private static final Guess EAGLE = new Guess("eagle", List.of(
+            new WordleResponse('e', 0, WRONG_LOCATION),
+            new WordleResponse('a', 1, WRONG_LOCATION),
+            new WordleResponse('g', 2, WRONG_LETTER),
+            new WordleResponse('l', 3, WRONG_LOCATION),
+            new WordleResponse('e', 4, CORRECT_LOCATION)));
+
+    @Test
+    void packFitsIn35Bits() {
+        long packed = GuessCodec.pack(EAGLE);
+        assertEquals(0, packed >>> 35);
+    }
+
+    @Test
+    void historyRoundTripsThroughFiveBytesPerGuess() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GuessCodec.writeHistory(new DataOutputStream(bytes), List.of(EAGLE, EAGLE));
+        assertEquals(2 + 2 * GuessCodec.GUESS_BYTES, bytes.size());
+
+        List<Guess> back = GuessCodec.readHistory(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(2, back.size());
+        //Guess and WordleResponse don't override equals() so compare through the packed form, which covers every field
+        assertEquals(GuessCodec.pack(EAGLE), GuessCodec.pack(back.get(1)));
+    }
+
+    @Test
+    void rejectsFeedbackThatDoesntMatchTheWord() {
+        //the gray tests in RegexWordleTest do this on purpose, but it can't survive a 35 bit encoding
+        Guess mismatched = new Guess("aaaaa", List.of(
+                new WordleResponse('a', 0, WRONG_LETTER),
+                new WordleResponse('b', 1, WRONG_LETTER),
+                new WordleResponse('a', 2, WRONG_LETTER),
+                new WordleResponse('b', 3, WRONG_LETTER),
+                new WordleResponse('a', 4, WRONG_LETTER)));
+        assertThrows(IllegalArgumentException.class, () -> GuessCodec.pack(mismatched));
+    }
+
+    @Test
+    void anyHistoryPacksRealGuessesAndSpellsOutTheRest() throws IOException {
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        GuessCodec.writeAnyHistory(new DataOutputStream(packed), List.of(EAGLE));
+        assertEquals(1 + 2 + GuessCodec.GUESS_BYTES, packed.size());
+
+        Guess partial = new Guess("crane", List.of(new WordleResponse('c', 0, WRONG_LETTER)));
+        ByteArrayOutputStream spelled = new ByteArrayOutputStream();
+        GuessCodec.writeAnyHistory(new DataOutputStream(spelled), List.of(EAGLE, partial));
+
+        List<Guess> back = GuessCodec.readAnyHistory(new DataInputStream(new ByteArrayInputStream(spelled.toByteArray())));
+        assertEquals(2, back.size());
+        assertEquals(GuessCodec.pack(EAGLE), GuessCodec.pack(back.get(0)));
+        //the partial guess has no packed form, the regex it compiles to covers every field instead
+        assertEquals(RegExWordle.getUpdatedRegexRule(List.of(partial)).toString(),
+                RegExWordle.getUpdatedRegexRule(List.of(back.get(1))).toString());
+    }
+}
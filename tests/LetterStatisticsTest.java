@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.benny.wordle.LetterStatistics;
+import com.benny.wordle.LetterStatisticsStore;
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.RegExWordle.Guess;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LetterStatisticsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void countsPositionsBigramsAndRepeats() {
+        LetterStatistics stats = LetterStatistics.of(List.of("cigar", "rebut", "sissy", "eagle"));
+
+        assertEquals(4, stats.wordCount());
+        assertEquals(1, stats.positionCount('e', 4));    //eagle
+        assertEquals(0.25, stats.positionFrequency('s', 0));
+        assertEquals(1, stats.bigramCount('s', 's'));    //siSSy
+        assertEquals(2, stats.bigramCount('a', 'r') + stats.bigramCount('e', 'a')); //cigAR, EAgle
+        assertEquals(2, stats.wordsContaining('e'));     //rebut, eagle (eagle only counted once)
+        assertEquals(0.5, stats.repeatLetterRate());     //sissy and eagle
+    }
+
+    @Test
+    void candidateStatisticsMatchCountingTheMatches() {
+        //TRAIN against secret SHLEP, all gray
+        List<Guess> history = List.of(new Guess("train", List.of(
+                new WordleResponse('t', 0, WRONG_LETTER),
+                new WordleResponse('r', 1, WRONG_LETTER),
+                new WordleResponse('a', 2, WRONG_LETTER),
+                new WordleResponse('i', 3, WRONG_LETTER),
+                new WordleResponse('n', 4, WRONG_LETTER))));
+        RegExWordle.LetterResponse.resetGrayCharacterClass();
+        LetterStatistics expected = LetterStatistics.of(RegExWordle.wordleMatches(history));
+
+        LetterStatistics candidates = LetterStatistics.ofCandidates(history);
+
+        assertEquals(expected.wordCount(), candidates.wordCount());
+        assertEquals(expected.positionCount('e', 4), candidates.positionCount('e', 4));
+        assertEquals(0, candidates.wordsContaining('t'));
+    }
+
+    @Test
+    void snapshotCatchesUpOnlyOnNewDays() throws IOException {
+        Path csv = dir.resolve("wordle_history.csv");
+        Path snapshot = dir.resolve("letter_statistics.bin");
+        Files.writeString(csv, "2021-06-19,cigar\n2021-06-20,rebut\n");
+
+        LetterStatisticsStore.build(csv).save(snapshot);
+
+        //the fetcher rewrites the whole file but the old days stay byte for byte the same
+        Files.writeString(csv, "2021-06-19,cigar\n2021-06-20,rebut\n2021-06-21,sissy\n");
+        LetterStatisticsStore reloaded = LetterStatisticsStore.load(snapshot, csv);
+        assertEquals(3, reloaded.answers().wordCount());
+        assertEquals(0, reloaded.catchUp(csv));
+        assertEquals(LetterStatistics.of(List.of("cigar", "rebut", "sissy")).positionCount('s', 0),
+                reloaded.answers().positionCount('s', 0));
+        assertEquals(RegExWordle.dictionary().size(), reloaded.dictionary().wordCount());
+    }
+
+    @Test
+    void rewrittenHistoryIsRecountedFromScratch() throws IOException {
+        Path csv = dir.resolve("wordle_history.csv");
+        Files.writeString(csv, "2021-06-19,cigar\n2021-06-20,rebut\n");
+        LetterStatisticsStore store = LetterStatisticsStore.build(csv);
+
+        Files.writeString(csv, "2021-06-19,cigar\n2021-06-20,humph\n2021-06-21,sissy\n");
+        store.catchUp(csv);
+
+        assertEquals(3, store.answers().wordCount());
+        assertEquals(0, store.answers().wordsContaining('b'));
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.benny.wordle.GuessCodec;
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.SessionJournal;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import com.benny.wordle.RegExWordle.Guess;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionJournalTest {
+
+    /** TRAIN against secret SHLEP, all gray */
+    private static final Guess TRAIN = new Guess("train", List.of(
+            new WordleResponse('t', 0, WRONG_LETTER),
+            new WordleResponse('r', 1, WRONG_LETTER),
+            new WordleResponse('a', 2, WRONG_LETTER),
+            new WordleResponse('i', 3, WRONG_LETTER),
+            new WordleResponse('n', 4, WRONG_LETTER)));
+
+    /** COUGH against secret SHLEP, only H is yellow */
+    private static final Guess COUGH = new Guess("cough", List.of(
+            new WordleResponse('c', 0, WRONG_LETTER),
+            new WordleResponse('o', 1, WRONG_LETTER),
+            new WordleResponse('u', 2, WRONG_LETTER),
+            new WordleResponse('g', 3, WRONG_LETTER),
+            new WordleResponse('h', 4, WRONG_LOCATION)));
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void clearGrayState() {
+        RegExWordle.LetterResponse.resetGrayCharacterClass();
+    }
+
+    @Test
+    void reopenRestoresOpenSessionsAndTheirCandidates() throws IOException {
+        try (SessionJournal journal = SessionJournal.open(dir)) {
+            journal.recordGuess(1, TRAIN);
+            journal.recordGuess(2, TRAIN);
+            journal.recordGuess(1, COUGH);
+            journal.endSession(2).join(); //session 2 finished, it shouldn't come back
+        }
+
+        try (SessionJournal reopened = SessionJournal.open(dir)) {
+            Map<Long, List<Guess>> sessions = reopened.recoveredSessions();
+            assertEquals(List.of(1L), List.copyOf(sessions.keySet()));
+            List<Guess> history = sessions.get(1L);
+            assertEquals(2, history.size());
+            assertEquals(GuessCodec.pack(TRAIN), GuessCodec.pack(history.get(0)));
+            assertEquals(GuessCodec.pack(COUGH), GuessCodec.pack(history.get(1)));
+            assertEquals(RegExWordle.wordleMatches(List.of(TRAIN, COUGH)), reopened.recoveredCandidates().get(1L));
+        }
+    }
+
+    @Test
+    void tornTailIsDroppedOnReplay() throws IOException {
+        try (SessionJournal journal = SessionJournal.open(dir)) {
+            journal.recordGuess(7, TRAIN);
+            journal.recordGuess(7, COUGH).join();
+        }
+        //simulate a crash halfway through writing the second record
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (SessionJournal reopened = SessionJournal.open(dir)) {
+            assertEquals(1, reopened.recoveredSessions().get(7L).size());
+        }
+    }
+
+    @Test
+    void segmentsRotateWhenFull() throws IOException {
+        try (SessionJournal journal = SessionJournal.open(dir, 64)) { //room for 3 records per segment
+            for (int i = 0; i < 10; i++) journal.recordGuess(i, TRAIN).join();
+        }
+        assertEquals(4, segments().size());
+
+        try (SessionJournal reopened = SessionJournal.open(dir, 64)) {
+            assertEquals(10, reopened.recoveredSessions().size());
+        }
+    }
+
+    @Test
+    void reopenCheckpointsLiveSessionsAndDropsOldSegments() throws IOException {
+        try (SessionJournal journal = SessionJournal.open(dir, 64)) {
+            for (int i = 0; i < 10; i++) journal.recordGuess(i, TRAIN);
+            for (int i = 0; i < 9; i++) journal.endSession(i);
+            journal.recordGuess(9, COUGH).join();
+        }
+        assertTrue(segments().size() > 2);
+
+        for (int round = 0; round < 3; round++) {
+            try (SessionJournal reopened = SessionJournal.open(dir, 64)) {
+                assertEquals(List.of(9L), List.copyOf(reopened.recoveredSessions().keySet()));
+                assertEquals(2, reopened.recoveredSessions().get(9L).size());
+            }
+            //just the checkpoint (marker + 2 guesses) plus the empty segment the open started
+            List<Path> left = segments();
+            assertEquals(2, left.size());
+            assertEquals(3 * 18, Files.size(left.get(0)));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+}
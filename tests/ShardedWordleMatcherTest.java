@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.*;
+
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.ShardedWordleMatcher;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import com.benny.wordle.RegExWordle.Guess;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedWordleMatcherTest {
+
+    /** TRAIN against secret SHLEP, all gray */
+    private static final List<Guess> TRAIN = List.of(new Guess("train", List.of(
+            new WordleResponse('t', 0, WRONG_LETTER),
+            new WordleResponse('r', 1, WRONG_LETTER),
+            new WordleResponse('a', 2, WRONG_LETTER),
+            new WordleResponse('i', 3, WRONG_LETTER),
+            new WordleResponse('n', 4, WRONG_LETTER))));
+
+    @BeforeEach
+    void clearGrayState() {
+        RegExWordle.LetterResponse.resetGrayCharacterClass();
+    }
+
+    @Test
+    void shardedMatchesEqualSingleProcess() throws IOException {
+        try (ShardedWordleMatcher sharded = new ShardedWordleMatcher(3)) {
+            assertEquals(RegExWordle.wordleMatches(TRAIN), sharded.wordleMatches(TRAIN)); //same words in the same order
+            assertEquals(RegExWordle.wordleMatches(TRAIN).size(), sharded.countMatches(TRAIN));
+            assertEquals(RegExWordle.wordleMatches(List.of()), sharded.wordleMatches(List.of()));
+        }
+    }
+
+    @Test
+    void historiesThatCantBePackedStillMatchSingleProcess() throws IOException {
+        //one response only, and feedback letters that don't match the word (RegexWordleTest builds these on purpose)
+        List<Guess> partial = List.of(new Guess("crane", List.of(new WordleResponse('c', 0, WRONG_LETTER))));
+        List<Guess> mismatched = List.of(new Guess("aaaaa", List.of(
+                new WordleResponse('a', 0, WRONG_LETTER),
+                new WordleResponse('b', 1, WRONG_LETTER),
+                new WordleResponse('a', 2, WRONG_LETTER),
+                new WordleResponse('b', 3, WRONG_LETTER),
+                new WordleResponse('a', 4, WRONG_LETTER))));
+        try (ShardedWordleMatcher sharded = new ShardedWordleMatcher(2)) {
+            assertEquals(RegExWordle.wordleMatches(partial), sharded.wordleMatches(partial));
+            assertEquals(RegExWordle.wordleMatches(mismatched), sharded.wordleMatches(mismatched));
+        }
+    }
+
+    @Test
+    void deadWorkerIsRetriedOnAnotherShardAndReplaced() throws IOException {
+        try (ShardedWordleMatcher sharded = new ShardedWordleMatcher(2)) {
+            ProcessHandle worker = ProcessHandle.current().children().findFirst().orElseThrow();
+            worker.destroyForcibly();
+            worker.onExit().join();
+
+            assertEquals(RegExWordle.wordleMatches(TRAIN), sharded.wordleMatches(TRAIN));
+            assertEquals(1, sharded.liveWorkers());
+
+            //the next query starts a replacement before it scatters
+            assertEquals(RegExWordle.wordleMatches(TRAIN).size(), sharded.countMatches(TRAIN));
+            assertEquals(2, sharded.liveWorkers());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.benny.wordle.WordleHistoryStore;
+import com.benny.wordle.WordleHistoryStore.Format;
+import com.benny.wordle.WordleHistoryStore.Source;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordleHistoryStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private List<Source> sources;
+    private Path binary;
+
+    @BeforeEach
+    void writeSources() throws IOException {
+        Files.writeString(dir.resolve("history.csv"), "2021-06-19,cigar\n2021-06-20,rebut\n");
+        Files.writeString(dir.resolve("history.json"), "{\n  \"2021-06-19\" : \"cigar\",\n  \"2021-06-20\" : \"rebut\"\n}");
+        //day 1 disagrees with the csv, day 2 and the 241a alternate are only known here
+        Files.writeString(dir.resolve("past.txt"), "CIGAR 0\nSISSY 1 \u25B2\nAGORA 241a\nSISSY 2\n");
+        Files.writeString(dir.resolve("clean.txt"), "CIGAR\nHUMPH\n");
+        sources = List.of(
+                new Source(dir.resolve("history.csv"), Format.HISTORY_CSV),
+                new Source(dir.resolve("history.json"), Format.HISTORY_JSON),
+                new Source(dir.resolve("past.txt"), Format.PAST_WORDLES),
+                new Source(dir.resolve("clean.txt"), Format.WORD_LIST));
+        binary = dir.resolve("history.bin");
+    }
+
+    @Test
+    void mergesDeduplicatesAndReportsConflicts() throws IOException {
+        WordleHistoryStore store = WordleHistoryStore.refresh(binary, sources);
+
+        assertEquals(List.of("cigar", "rebut", "sissy", "agora"), store.answers()); //nobody else claims day 241 so the alternate keeps it
+        assertEquals("rebut", store.answerOn(LocalDate.of(2021, 6, 20)));
+        assertNull(store.answerOn(LocalDate.of(2021, 6, 22)));
+        assertTrue(store.contains("HUMPH"));   //undated but still used
+        assertFalse(store.contains("queue"));
+        assertEquals(5, store.size());
+
+        List<WordleHistoryStore.Conflict> conflicts = store.conflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals(LocalDate.of(2021, 6, 20), conflicts.get(0).date);
+        assertEquals("rebut", conflicts.get(0).kept);   //the NYT csv beats PastWordles.txt
+        assertEquals("sissy", conflicts.get(0).dropped);
+    }
+
+    @Test
+    void unchangedSourcesAreNotRebuilt() throws IOException {
+        WordleHistoryStore.refresh(binary, sources);
+        FileTime built = Files.getLastModifiedTime(binary);
+
+        WordleHistoryStore.refresh(binary, sources);
+        assertEquals(built, Files.getLastModifiedTime(binary));
+
+        Files.writeString(dir.resolve("history.csv"), "2021-06-19,cigar\n2021-06-20,rebut\n2021-06-21,humph\n");
+        WordleHistoryStore rebuilt = WordleHistoryStore.refresh(binary, sources);
+        assertEquals("humph", rebuilt.answerOn(LocalDate.of(2021, 6, 21)));
+    }
+
+    @Test
+    void concurrentRefreshesAllSucceed() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<WordleHistoryStore>> loads = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                loads.add(pool.submit(() -> {
+                    go.await();
+                    return WordleHistoryStore.refresh(binary, sources);
+                }));
+            }
+            go.countDown();
+            for (Future<WordleHistoryStore> load : loads) assertEquals(5, load.get().size());
+        } finally {
+            pool.shutdownNow();
+        }
+        try (var leftovers = Files.list(dir)) {
+            assertTrue(leftovers.noneMatch(p -> p.toString().endsWith(".tmp"))); //every builder cleans up its own temp file
+        }
+    }
+
+    @Test
+    void malformedLineFailsWithItsLocation() throws IOException {
+        Files.writeString(dir.resolve("history.csv"), "2021-06-19,cigar\n2021-06-20,toolong\n");
+        IOException e = assertThrows(IOException.class, () -> WordleHistoryStore.refresh(binary, sources));
+        assertTrue(e.getMessage().contains("history.csv:2"));
+    }
+}
@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.*;
+
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.WordleMatchPublisher;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import com.benny.wordle.RegExWordle.Guess;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordleMatchPublisherTest {
+
+    /** TRAIN against secret SHLEP, all 5 letters come back gray */
+    private static final List<Guess> ALL_GRAY_TRAIN = List.of(new Guess("train", List.of(
+            new WordleResponse('t', 0, WRONG_LETTER),
+            new WordleResponse('r', 1, WRONG_LETTER),
+            new WordleResponse('a', 2, WRONG_LETTER),
+            new WordleResponse('i', 3, WRONG_LETTER),
+            new WordleResponse('n', 4, WRONG_LETTER))));
+
+    /** records everything it receives and only asks for what it's told to */
+    private static class RecordingSubscriber implements Flow.Subscriber<String> {
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        final long initialRequest;
+        final int cancelAfter;
+        Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialRequest, int cancelAfter) {
+            this.initialRequest = initialRequest;
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override public void onSubscribe(Flow.Subscription s) { subscription = s; s.request(initialRequest); }
+        @Override public void onNext(String word) {
+            received.add(word);
+            if (received.size() == cancelAfter) subscription.cancel();
+        }
+        @Override public void onError(Throwable t) { fail(t); }
+        @Override public void onComplete() { completed.countDown(); }
+    }
+
+    @BeforeEach
+    void clearGrayState() {
+        RegExWordle.LetterResponse.resetGrayCharacterClass();
+    }
+
+    @Test
+    void unboundedDemandEmitsExactlyWordleMatches() throws InterruptedException {
+        List<String> expected = RegExWordle.wordleMatches(ALL_GRAY_TRAIN);
+        AtomicInteger total = new AtomicInteger(-1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE, -1);
+
+        new WordleMatchPublisher(ALL_GRAY_TRAIN, total::set).subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(new HashSet<>(expected), new HashSet<>(subscriber.received)); //parallel chunks so order is not guaranteed
+        assertEquals(expected.size(), subscriber.received.size());
+        assertEquals(expected.size(), total.get());
+    }
+
+    @Test
+    void topEightStopsAtEightAndStillReportsExactCount() throws InterruptedException {
+        List<String> expected = RegExWordle.wordleMatches(ALL_GRAY_TRAIN);
+        CountDownLatch summarized = new CountDownLatch(1);
+        AtomicInteger total = new AtomicInteger(-1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(8, 8);
+
+        new WordleMatchPublisher(ALL_GRAY_TRAIN, count -> { total.set(count); summarized.countDown(); }).subscribe(subscriber);
+
+        assertTrue(summarized.await(10, TimeUnit.SECONDS));
+        assertEquals(8, subscriber.received.size());
+        assertTrue(expected.containsAll(subscriber.received));
+        assertEquals(expected.size(), total.get());
+    }
+
+    @Test
+    void cancellingWithoutSummaryStopsTheScanEarly() {
+        //run the chunks one at a time on the calling thread so we can count exactly how many got handed out
+        AtomicInteger chunksRun = new AtomicInteger();
+        Executor countingDirect = task -> { chunksRun.incrementAndGet(); task.run(); };
+        RecordingSubscriber subscriber = new RecordingSubscriber(8, 8);
+
+        new WordleMatchPublisher(ALL_GRAY_TRAIN, countingDirect, 1, null).subscribe(subscriber);
+
+        assertEquals(8, subscriber.received.size());
+        assertEquals(1, subscriber.completed.getCount()); //cancelled, so never completed
+        assertTrue(chunksRun.get() < 10, "scanned " + chunksRun.get() + " of ~58 chunks for 8 words");
+    }
+
+    @Test
+    void nonPositiveRequestErrorsOnceAndNothingElse() throws InterruptedException {
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch errored = new CountDownLatch(1);
+
+        new WordleMatchPublisher(ALL_GRAY_TRAIN).subscribe(new Flow.Subscriber<String>() {
+            @Override public void onSubscribe(Flow.Subscription s) { s.request(0); s.request(Long.MAX_VALUE); }
+            @Override public void onNext(String word) { received.add(word); }
+            @Override public void onError(Throwable t) { errors.add(t); errored.countDown(); }
+            @Override public void onComplete() { fail("completed after an error"); }
+        });
+
+        assertTrue(errored.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100); //give any stray chunk a chance to (wrongly) signal
+        assertEquals(1, errors.size());
+        assertInstanceOf(IllegalArgumentException.class, errors.get(0));
+        assertEquals(List.of(), received);
+    }
+
+    @Test
+    void summaryComesAfterEveryMatchAndRightBeforeComplete() {
+        //the whole scan runs on the calling thread during subscribe(), long before the subscriber asks for the rest
+        int expected = RegExWordle.wordleMatches(ALL_GRAY_TRAIN).size();
+        List<String> signals = new ArrayList<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+        new WordleMatchPublisher(ALL_GRAY_TRAIN, Runnable::run, 1, count -> signals.add("summary " + count))
+                .subscribe(new Flow.Subscriber<String>() {
+                    @Override public void onSubscribe(Flow.Subscription s) { subscription[0] = s; s.request(1); }
+                    @Override public void onNext(String word) { signals.add("next"); }
+                    @Override public void onError(Throwable t) { fail(t); }
+                    @Override public void onComplete() { signals.add("complete"); }
+                });
+
+        assertEquals(List.of("next"), signals); //scan finished but the matches are still buffered, so no summary yet
+        subscription[0].request(Long.MAX_VALUE);
+        assertEquals(expected + 2, signals.size());
+        assertEquals(List.of("summary " + expected, "complete"), signals.subList(expected, expected + 2));
+    }
+}
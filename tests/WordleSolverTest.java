@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.*;
+
+import com.benny.wordle.RegExWordle;
+import com.benny.wordle.WordleSolver;
+import com.benny.wordle.RegExWordle.WordleResponse;
+import com.benny.wordle.RegExWordle.Guess;
+import static com.benny.wordle.RegExWordle.LetterResponse.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordleSolverTest {
+
+    /** EAGLE against secret ALLEE: E→Y, A→Y, G→X, L→Y, E→G so hard mode needs e at position 4, two e's total, an a and an l */
+    private static final List<Guess> EAGLE = List.of(new Guess("eagle", List.of(
+            new WordleResponse('e', 0, WRONG_LOCATION),
+            new WordleResponse('a', 1, WRONG_LOCATION),
+            new WordleResponse('g', 2, WRONG_LETTER),
+            new WordleResponse('l', 3, WRONG_LOCATION),
+            new WordleResponse('e', 4, CORRECT_LOCATION))));
+
+    @BeforeEach
+    void clearGrayState() {
+        RegExWordle.LetterResponse.resetGrayCharacterClass();
+    }
+
+    @Test
+    void hardModeRuleReusesGreensYellowsAndTheirCounts() {
+        assertEquals("(?i)^(?=.{4}e)(?=.*a)(?=(?:.*e){2})(?=.*l).{5}$", RegExWordle.getHardModeRegexRule(EAGLE).toString());
+    }
+
+    @Test
+    void hardModeValidatesGuesses() {
+        WordleSolver solver = new WordleSolver(EAGLE, true);
+
+        assertTrue(solver.isLegalGuess("elate"));   //e, l, a and the green e at the end
+        assertFalse(solver.isLegalGuess("table"));  //only one e
+        assertFalse(solver.isLegalGuess("zzzzz"));  //not a word at all
+        assertThrows(IllegalArgumentException.class, () -> solver.checkGuess("table"));
+
+        WordleSolver normal = new WordleSolver(EAGLE, false);
+        assertTrue(normal.isLegalGuess("table"));
+    }
+
+    @Test
+    void oneDictionaryPassFillsCandidatesAndTheRestrictedPool() {
+        WordleSolver solver = new WordleSolver(EAGLE, true);
+
+        assertEquals(RegExWordle.wordleMatches(EAGLE), solver.candidates());
+        assertTrue(solver.legalGuesses().stream().allMatch(solver::isLegalGuess));
+        assertTrue(solver.legalGuesses().size() < RegExWordle.wordleMatches(List.of()).size());
+
+        List<String> suggestions = solver.suggestions(5);
+        assertEquals(5, suggestions.size());
+        assertTrue(solver.legalGuesses().containsAll(suggestions));
+    }
+
+    @Test
+    void suggestionsNeverRepeatAGuess() {
+        for (String secret : List.of("lower", "crane", "shlep", "eagle", "sissy")) {
+            List<Guess> history = new ArrayList<>();
+            List<String> guessed = new ArrayList<>();
+            for (int turn = 0; turn < 6; turn++) {
+                List<String> suggestions = new WordleSolver(history, true).suggestions(5);
+                for (String earlier : guessed) assertFalse(suggestions.contains(earlier), earlier + " suggested again for " + secret);
+                String next = suggestions.get(0);
+                if (next.equals(secret)) break;
+                guessed.add(next);
+                history.add(feedback(next, secret));
+            }
+        }
+    }
+
+    /** the colors the real game shows, a letter only turns yellow while the secret still has an unmatched copy of it */
+    private static Guess feedback(String guess, String secret) {
+        RegExWordle.LetterResponse[] responses = new RegExWordle.LetterResponse[5];
+        int[] unmatched = new int[26];
+        for (int i = 0; i < 5; i++) {
+            if (guess.charAt(i) == secret.charAt(i)) responses[i] = CORRECT_LOCATION;
+            else unmatched[secret.charAt(i) - 'a']++;
+        }
+        List<WordleResponse> feedback = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            char c = guess.charAt(i);
+            if (responses[i] == null) responses[i] = unmatched[c - 'a']-- > 0 ? WRONG_LOCATION : WRONG_LETTER;
+            feedback.add(new WordleResponse(c, i, responses[i]));
+        }
+        return new Guess(guess, feedback);
+    }
+}